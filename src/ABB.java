@@ -1,12 +1,23 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 
 public class ABB<K, V> implements IMapeamento<K, V> {
 
+	/** Tamanho mínimo de um trecho de lote para que suas sub-árvores sejam processadas em paralelo. */
+	private static final int LIMIAR_PARALELO = 4096;
+
 	private No<K, V> raiz; // referência à raiz da árvore.
 	private Comparator<K> comparador; // comparador empregado para definir "menores" e "maiores".
 	private int tamanho;
+	private boolean noCriado; // indica se a última inserção criou um nodo (ou apenas substituiu o item).
 	private long comparacoes;
 	private long inicio;
 	private long termino;
@@ -101,42 +112,136 @@ public class ABB<K, V> implements IMapeamento<K, V> {
 
 	@Override
 	/**
-	 * Método que encapsula a pesquisa recursiva de itens na árvore.
+	 * Método que encapsula a pesquisa de itens na árvore.
 	 * 
 	 * @param chave a chave do item que será pesquisado na árvore.
 	 * @return o valor associado à chave.
+	 * @throws NoSuchElementException se a chave não for localizada na árvore.
 	 */
 	public V pesquisar(K chave) {
 		comparacoes = 0;
 		inicio = System.nanoTime();
-		V procurado = pesquisar(raiz, chave);
+		No<K, V> procurado = localizar(chave, true);
+		termino = System.nanoTime();
+		if (procurado == null)
+			throw new NoSuchElementException("O item não foi localizado na árvore!");
+		return procurado.getItem();
+	}
+
+	@Override
+	/**
+	 * Pesquisa um item na árvore sem lançar exceção quando a chave não existe. A
+	 * pesquisa sem sucesso não aloca nenhum objeto.
+	 * 
+	 * @param chave       a chave do item que será pesquisado na árvore.
+	 * @param valorPadrao o valor retornado caso a chave não seja localizada.
+	 * @return o valor associado à chave, ou {@code valorPadrao} se ela não existir.
+	 */
+	public V pesquisar(K chave, V valorPadrao) {
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		No<K, V> procurado = localizar(chave, true);
+		termino = System.nanoTime();
+		return (procurado != null) ? procurado.getItem() : valorPadrao;
+	}
+
+	@Override
+	/**
+	 * Indica se a chave está presente na árvore.
+	 * 
+	 * @param chave a chave que será pesquisada na árvore.
+	 * @return verdadeiro se a chave for localizada; falso, caso contrário.
+	 */
+	public boolean contem(K chave) {
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		No<K, V> procurado = localizar(chave, true);
 		termino = System.nanoTime();
-		return procurado;
+		return (procurado != null);
+	}
+
+	/**
+	 * Pesquisa um item na árvore sem registrar medições. Como não altera nenhum
+	 * atributo da árvore, pode ser usado por várias threads simultaneamente,
+	 * desde que a árvore não seja modificada durante as pesquisas.
+	 * 
+	 * @param chave       a chave do item que será pesquisado na árvore.
+	 * @param valorPadrao o valor retornado caso a chave não seja localizada.
+	 * @return o valor associado à chave, ou {@code valorPadrao} se ela não existir.
+	 */
+	public V pesquisarSemMedicao(K chave, V valorPadrao) {
+		No<K, V> procurado = localizar(chave, false);
+		return (procurado != null) ? procurado.getItem() : valorPadrao;
 	}
 
-	private V pesquisar(No<K, V> raizArvore, K procurado) {
+	/**
+	 * Desce iterativamente a partir da raiz até o nodo que contém a chave.
+	 * 
+	 * @param procurado a chave que será pesquisada.
+	 * @param medir     se verdadeiro, as comparações realizadas são contabilizadas.
+	 * @return o nodo que contém a chave, ou {@code null} se ela não existir.
+	 */
+	private No<K, V> localizar(K procurado, boolean medir) {
 
+		No<K, V> raizArvore = raiz;
 		int comparacao;
 
-		comparacoes++;
+		while (true) {
+			if (medir)
+				comparacoes++;
+			if (raizArvore == null)
+				/// Se a raiz da sub-árvore for null, o item não foi encontrado.
+				return null;
+
+			comparacao = comparador.compare(procurado, raizArvore.getChave());
+
+			if (comparacao == 0)
+				/// O item procurado foi encontrado.
+				return raizArvore;
+			else if (comparacao < 0)
+				/// Se o item procurado for menor do que o item armazenado na raiz da
+				/// sub-árvore: continue a pesquisa na sub-árvore esquerda.
+				raizArvore = raizArvore.getEsquerda();
+			else
+				/// Se o item procurado for maior do que o item armazenado na raiz da
+				/// sub-árvore: continue a pesquisa na sub-árvore direita.
+				raizArvore = raizArvore.getDireita();
+		}
+	}
+
+	/**
+	 * Retorna, em ordem, os itens cujas chaves estão no intervalo fechado
+	 * [inicioIntervalo, fimIntervalo]. Apenas as sub-árvores que podem conter
+	 * chaves do intervalo são visitadas. Assim como
+	 * {@link #pesquisarSemMedicao(Object, Object)}, não registra medições e pode
+	 * ser usado por várias threads enquanto a árvore não é modificada.
+	 * 
+	 * @param inicioIntervalo menor chave do intervalo.
+	 * @param fimIntervalo    maior chave do intervalo.
+	 * @return lista com os itens do intervalo, em ordem crescente de chave.
+	 */
+	public List<V> intervalo(K inicioIntervalo, K fimIntervalo) {
+		List<V> itens = new ArrayList<>();
+		intervalo(raiz, inicioIntervalo, fimIntervalo, itens);
+		return itens;
+	}
+
+	private void intervalo(No<K, V> raizArvore, K inicioIntervalo, K fimIntervalo, List<V> itens) {
+
 		if (raizArvore == null)
-			/// Se a raiz da árvore ou sub-árvore for null, a árvore/sub-árvore está vazia e
-			/// então o item não foi encontrado.
-			throw new NoSuchElementException("O item não foi localizado na árvore!");
+			return;
 
-		comparacao = comparador.compare(procurado, raizArvore.getChave());
+		int comparacaoInicio = comparador.compare(inicioIntervalo, raizArvore.getChave());
+		int comparacaoFim = comparador.compare(fimIntervalo, raizArvore.getChave());
 
-		if (comparacao == 0)
-			/// O item procurado foi encontrado.
-			return raizArvore.getItem();
-		else if (comparacao < 0)
-			/// Se o item procurado for menor do que o item armazenado na raiz da árvore:
-			/// pesquise esse item na sub-árvore esquerda.
-			return pesquisar(raizArvore.getEsquerda(), procurado);
-		else
-			/// Se o item procurado for maior do que o item armazenado na raiz da árvore:
-			/// pesquise esse item na sub-árvore direita.
-			return pesquisar(raizArvore.getDireita(), procurado);
+		if (comparacaoInicio < 0)
+			/// Há chaves do intervalo menores que a da raiz: elas estão à esquerda.
+			intervalo(raizArvore.getEsquerda(), inicioIntervalo, fimIntervalo, itens);
+		if (comparacaoInicio <= 0 && comparacaoFim >= 0)
+			itens.add(raizArvore.getItem());
+		if (comparacaoFim > 0)
+			/// Há chaves do intervalo maiores que a da raiz: elas estão à direita.
+			intervalo(raizArvore.getDireita(), inicioIntervalo, fimIntervalo, itens);
 	}
 
 	@Override
@@ -148,16 +253,20 @@ public class ABB<K, V> implements IMapeamento<K, V> {
 	 * @param item  o item que será inserido na árvore.
 	 * 
 	 * @return o tamanho atualizado da árvore após a execução da operação de
-	 *         inserção.
+	 *         inserção. Se a chave já existir, apenas o item é substituído e o
+	 *         tamanho não se altera.
 	 */
 	public int inserir(K chave, V item) {
+		noCriado = false;
 		raiz = inserir(raiz, chave, item);
-		tamanho++;
+		if (noCriado)
+			tamanho++;
 		return tamanho;
 	}
 
 	private No<K, V> inserir(No<K, V> i, K chave, V item) {
 		if (i == null) {
+			noCriado = true;
 			return new No<>(chave, item);
 		}
 		int comp = comparador.compare(chave, i.getChave());
@@ -171,6 +280,234 @@ public class ABB<K, V> implements IMapeamento<K, V> {
 		return i;
 	}
 
+	@Override
+	/**
+	 * Insere um lote de itens na árvore em uma única passagem ordenada.
+	 * 
+	 * @param itens pares chave/item que serão inseridos na árvore.
+	 * @return o tamanho atualizado da árvore após a inserção do lote.
+	 */
+	public int inserirTodos(Collection<? extends Map.Entry<K, V>> itens) {
+		return inserirTodos(itens, false);
+	}
+
+	/**
+	 * Insere um lote de itens na árvore em uma única passagem ordenada.
+	 * 
+	 * O lote é ordenado pela chave e intercalado com a árvore: em cada nodo, o
+	 * trecho do lote é dividido, por busca binária, entre a sub-árvore esquerda e a
+	 * direita, de modo que cada nodo é visitado uma única vez por lote. Os trechos
+	 * que chegam a uma sub-árvore vazia dão origem a sub-árvores balanceadas. Se
+	 * uma chave já existir, seu item é substituído; se aparecer mais de uma vez no
+	 * lote, prevalece a última ocorrência.
+	 * 
+	 * As medições (comparações e tempo) se referem ao lote inteiro.
+	 * 
+	 * @param itens    pares chave/item que serão inseridos na árvore.
+	 * @param paralelo se verdadeiro, trechos grandes do lote são distribuídos
+	 *                 entre os núcleos, uma sub-árvore por tarefa.
+	 * @return o tamanho atualizado da árvore após a inserção do lote.
+	 */
+	public int inserirTodos(Collection<? extends Map.Entry<K, V>> itens, boolean paralelo) {
+		inicio = System.nanoTime();
+		LoteInsercao lote = new LoteInsercao(Lote.ordenarSemRepeticao(itens, comparador), paralelo);
+		raiz = lote.inserir(raiz, 0, lote.itens.size());
+		tamanho += lote.novos.intValue();
+		comparacoes = lote.comparacoes.sum();
+		termino = System.nanoTime();
+		return tamanho;
+	}
+
+	@Override
+	/**
+	 * Pesquisa um lote de chaves em uma única passagem ordenada pela árvore.
+	 * 
+	 * @param chaves as chaves que serão pesquisadas na árvore.
+	 * @return lista com os itens associados a cada chave, na ordem das chaves, ou
+	 *         {@code null} para as chaves não localizadas.
+	 */
+	public List<V> pesquisarTodos(List<K> chaves) {
+		return pesquisarTodos(chaves, false);
+	}
+
+	/**
+	 * Pesquisa um lote de chaves em uma única passagem ordenada pela árvore.
+	 * 
+	 * As chaves são ordenadas e descem juntas a partir da raiz: em cada nodo, o
+	 * trecho do lote é dividido, por busca binária, entre a sub-árvore esquerda e a
+	 * direita. O caminho comum a várias chaves é percorrido uma única vez.
+	 * 
+	 * As medições (comparações e tempo) se referem ao lote inteiro.
+	 * 
+	 * @param chaves   as chaves que serão pesquisadas na árvore.
+	 * @param paralelo se verdadeiro, trechos grandes do lote são distribuídos
+	 *                 entre os núcleos, uma sub-árvore por tarefa.
+	 * @return lista com os itens associados a cada chave, na ordem das chaves, ou
+	 *         {@code null} para as chaves não localizadas.
+	 */
+	public List<V> pesquisarTodos(List<K> chaves, boolean paralelo) {
+		inicio = System.nanoTime();
+		LotePesquisa lote = new LotePesquisa(chaves, paralelo);
+		lote.pesquisar(raiz, 0, chaves.size());
+		comparacoes = lote.comparacoes.sum();
+		termino = System.nanoTime();
+		return Arrays.asList(lote.resultados);
+	}
+
+	/**
+	 * Lote de chaves ordenadas, dividido recursivamente entre as sub-árvores. As
+	 * sub-árvores esquerda e direita de um nodo recebem trechos disjuntos do lote
+	 * e podem ser processadas em paralelo.
+	 */
+	private abstract class LoteOrdenado {
+
+		final LongAdder comparacoes = new LongAdder();
+		final boolean paralelo;
+
+		LoteOrdenado(boolean paralelo) {
+			this.paralelo = paralelo;
+		}
+
+		/** Chave na posição indicada do lote ordenado. */
+		abstract K chave(int posicao);
+
+		/**
+		 * Busca binária pela primeira posição do trecho [ini, fim) cuja chave não é
+		 * menor que a chave informada.
+		 */
+		int limiteInferior(int ini, int fim, K chave) {
+			int contagem = 0;
+			while (ini < fim) {
+				int meio = (ini + fim) >>> 1;
+				contagem++;
+				if (comparador.compare(chave(meio), chave) < 0)
+					ini = meio + 1;
+				else
+					fim = meio;
+			}
+			comparacoes.add(contagem);
+			return ini;
+		}
+
+		boolean iguais(int posicao, K chave) {
+			comparacoes.increment();
+			return comparador.compare(chave(posicao), chave) == 0;
+		}
+
+		/** Executa as duas etapas em paralelo, se o trecho for grande o suficiente. */
+		void executar(int tamanhoTrecho, Runnable esquerda, Runnable direita) {
+			if (paralelo && tamanhoTrecho >= LIMIAR_PARALELO) {
+				ForkJoinTask.invokeAll(ForkJoinTask.adapt(esquerda), ForkJoinTask.adapt(direita));
+			} else {
+				esquerda.run();
+				direita.run();
+			}
+		}
+	}
+
+	private class LoteInsercao extends LoteOrdenado {
+
+		final List<Map.Entry<K, V>> itens;
+		final LongAdder novos = new LongAdder();
+
+		LoteInsercao(List<Map.Entry<K, V>> itens, boolean paralelo) {
+			super(paralelo);
+			this.itens = itens;
+		}
+
+		@Override
+		K chave(int posicao) {
+			return itens.get(posicao).getKey();
+		}
+
+		No<K, V> inserir(No<K, V> raizArvore, int ini, int fim) {
+
+			if (ini >= fim)
+				return raizArvore;
+
+			if (raizArvore == null) {
+				/// Sub-árvore vazia: o trecho inteiro do lote forma uma nova sub-árvore balanceada.
+				novos.add(fim - ini);
+				return construir(ini, fim);
+			}
+
+			K chave = raizArvore.getChave();
+			int limite = limiteInferior(ini, fim, chave);
+			boolean existente = (limite < fim && iguais(limite, chave));
+			int inicioDireita = existente ? limite + 1 : limite;
+
+			if (existente)
+				raizArvore.setItem(itens.get(limite).getValue());
+
+			executar(fim - ini,
+					() -> raizArvore.setEsquerda(inserir(raizArvore.getEsquerda(), ini, limite)),
+					() -> raizArvore.setDireita(inserir(raizArvore.getDireita(), inicioDireita, fim)));
+			return raizArvore;
+		}
+
+		No<K, V> construir(int ini, int fim) {
+
+			if (ini >= fim)
+				return null;
+
+			int meio = (ini + fim) >>> 1;
+			No<K, V> novo = new No<>(itens.get(meio).getKey(), itens.get(meio).getValue());
+
+			executar(fim - ini,
+					() -> novo.setEsquerda(construir(ini, meio)),
+					() -> novo.setDireita(construir(meio + 1, fim)));
+			return novo;
+		}
+	}
+
+	private class LotePesquisa extends LoteOrdenado {
+
+		final List<K> chaves;
+		final Integer[] posicoes; // posições das chaves na lista original, em ordem crescente de chave.
+		final V[] resultados;
+
+		@SuppressWarnings("unchecked")
+		LotePesquisa(List<K> chaves, boolean paralelo) {
+			super(paralelo);
+			this.chaves = chaves;
+			this.posicoes = Lote.ordemCrescente(chaves, comparador);
+			this.resultados = (V[]) new Object[chaves.size()];
+		}
+
+		@Override
+		K chave(int posicao) {
+			return chaves.get(posicoes[posicao]);
+		}
+
+		void pesquisar(No<K, V> raizArvore, int ini, int fim) {
+
+			if (ini >= fim || raizArvore == null)
+				/// Trecho vazio, ou chaves não localizadas: seus resultados permanecem null.
+				return;
+
+			int limite = limiteInferior(ini, fim, raizArvore.getChave());
+			int inicioDireita = registrarEncontradas(raizArvore, limite, fim);
+
+			executar(fim - ini,
+					() -> pesquisar(raizArvore.getEsquerda(), ini, limite),
+					() -> pesquisar(raizArvore.getDireita(), inicioDireita, fim));
+		}
+
+		/**
+		 * Registra o item do nodo para todas as chaves do lote iguais à sua, a partir
+		 * da posição informada.
+		 * 
+		 * @return a primeira posição cuja chave é maior que a do nodo.
+		 */
+		int registrarEncontradas(No<K, V> nodo, int posicao, int fim) {
+			while (posicao < fim && iguais(posicao, nodo.getChave())) {
+				resultados[posicoes[posicao]] = nodo.getItem();
+				posicao++;
+			}
+			return posicao;
+		}
+	}
+
 	@Override
 	public String toString() {
 		return percorrer();
@@ -178,16 +515,17 @@ public class ABB<K, V> implements IMapeamento<K, V> {
 
 	@Override
 	public String percorrer() {
-		return caminhamentoEmOrdem(raiz).trim();
+		StringBuilder texto = new StringBuilder();
+		caminhamentoEmOrdem(raiz, texto);
+		return texto.toString().trim();
 	}
 
-	private String caminhamentoEmOrdem(No<K, V> i) {
-		if (i == null) {
-			return "";
+	private void caminhamentoEmOrdem(No<K, V> i, StringBuilder texto) {
+		if (i != null) {
+			caminhamentoEmOrdem(i.getEsquerda(), texto);
+			texto.append(i.getItem()).append(' ');
+			caminhamentoEmOrdem(i.getDireita(), texto);
 		}
-		return caminhamentoEmOrdem(i.getEsquerda()) +
-				i.getItem() + " " +
-				caminhamentoEmOrdem(i.getDireita());
 	}
 
 	@Override
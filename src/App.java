@@ -1,6 +1,10 @@
 import java.nio.charset.Charset;
-import java.util.NoSuchElementException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Scanner;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.io.File;
 import java.io.IOException;
@@ -23,6 +27,12 @@ public class App {
 
     static ABB<Integer, Produto> produtosCadastradosPorId;
 
+    /** Trava das árvores de produtos: pesquisas usam a leitura; o monitor do arquivo, a escrita */
+    static ReadWriteLock travaProdutos = new ReentrantReadWriteLock();
+
+    /** Monitor que aplica às árvores as alterações no arquivo de dados (null se inativo) */
+    static MonitorArquivoProdutos monitorArquivo;
+
     static void limparTela() {
         System.out.print("\033[H\033[2J");
         System.out.flush();
@@ -66,6 +76,7 @@ public class App {
         System.out.println("3 - Carregar produtos por id");
         System.out.println("4 - Procurar produto, por nome");
         System.out.println("5 - Procurar produto, por id");
+        System.out.println("6 - Carregar produtos e acompanhar alterações no arquivo");
 
         System.out.println("0 - Sair");
         System.out.print("Digite sua opção: ");
@@ -78,7 +89,9 @@ public class App {
      * N (quantidade de produtos) <br/>
      * tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade] <br/>
      * Deve haver uma linha para cada um dos produtos. Retorna uma árvore vazia em
-     * caso de problemas com o arquivo.
+     * caso de problemas com o arquivo. Os produtos são inseridos na árvore em um
+     * único lote, o que a mantém balanceada mesmo quando as chaves estão em ordem
+     * no arquivo.
      * 
      * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
      * @return Uma árvore com os produtos carregados, ou vazia em caso de problemas
@@ -91,6 +104,7 @@ public class App {
         String linha;
         Produto produto;
         ABB<K, Produto> produtosCadastrados;
+        List<Map.Entry<K, Produto>> produtosLidos;
         K chave;
 
         try {
@@ -98,13 +112,15 @@ public class App {
 
             numProdutos = Integer.parseInt(arquivo.nextLine());
             produtosCadastrados = new ABB<K, Produto>();
+            produtosLidos = new ArrayList<>(numProdutos);
 
             for (int i = 0; i < numProdutos; i++) {
                 linha = arquivo.nextLine();
                 produto = Produto.criarDoTexto(linha);
                 chave = extratorDeChave.apply(produto);
-                produtosCadastrados.inserir(chave, produto);
+                produtosLidos.add(Map.entry(chave, produto));
             }
+            produtosCadastrados.inserirTodos(produtosLidos);
             quantosProdutos = numProdutos;
 
         } catch (IOException excecaoArquivo) {
@@ -116,6 +132,69 @@ public class App {
         return produtosCadastrados;
     }
 
+    /**
+     * Lê os dados de um arquivo-texto, no mesmo formato de
+     * {@link #lerProdutos(String, Function)}, e grava os produtos em um
+     * armazenamento fora do heap. A árvore retornada associa a chave de cada
+     * produto à posição de seu registro no armazenamento; outros índices sobre os
+     * mesmos produtos podem ser montados com {@link ArmazemProdutos#indexar(Function)}.
+     *
+     * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
+     * @param armazem          Armazenamento em que os produtos serão gravados.
+     * @param extratorDeChave  Função que extrai a chave de cada produto.
+     * @return Uma árvore com as posições dos produtos, ou null em caso de
+     *         problemas de leitura.
+     */
+    static <K> ABB<K, Long> lerProdutos(String nomeArquivoDados, ArmazemProdutos armazem,
+            Function<Produto, K> extratorDeChave) {
+
+        ABB<K, Long> posicoes;
+        List<Map.Entry<K, Long>> produtosLidos;
+        Produto produto;
+
+        try (Scanner arquivo = new Scanner(new File(nomeArquivoDados), Charset.forName("UTF-8"))) {
+
+            int numProdutos = Integer.parseInt(arquivo.nextLine());
+            posicoes = new ABB<K, Long>();
+            produtosLidos = new ArrayList<>(numProdutos);
+
+            for (int i = 0; i < numProdutos; i++) {
+                /// O produto lido é temporário: apenas o registro gravado permanece.
+                produto = Produto.criarDoTexto(arquivo.nextLine());
+                produtosLidos.add(Map.entry(extratorDeChave.apply(produto), armazem.gravar(produto)));
+            }
+            posicoes.inserirTodos(produtosLidos);
+
+        } catch (IOException excecaoArquivo) {
+            posicoes = null;
+        }
+
+        return posicoes;
+    }
+
+    /**
+     * Lê os dados de um arquivo-texto, no mesmo formato de
+     * {@link #lerProdutos(String, Function)}, e retorna os produtos em uma lista,
+     * na ordem do arquivo. Útil para montar vários índices sobre os mesmos
+     * produtos.
+     * 
+     * @param nomeArquivoDados Nome do arquivo de dados a ser aberto.
+     * @return Lista com os produtos, na ordem do arquivo.
+     * @throws IOException em caso de problemas com o arquivo.
+     */
+    static List<Produto> lerCatalogo(String nomeArquivoDados) throws IOException {
+
+        List<Produto> produtos = new ArrayList<>();
+
+        try (Scanner arquivo = new Scanner(new File(nomeArquivoDados), Charset.forName("UTF-8"))) {
+            int numProdutos = Integer.parseInt(arquivo.nextLine());
+            for (int i = 0; i < numProdutos; i++) {
+                produtos.add(Produto.criarDoTexto(arquivo.nextLine()));
+            }
+        }
+        return produtos;
+    }
+
     static <K> Produto localizarProduto(ABB<K, Produto> produtosCadastrados, K procurado) {
 
         Produto produto;
@@ -123,11 +202,7 @@ public class App {
         cabecalho();
         System.out.println("Localizando um produto...");
 
-        try {
-            produto = produtosCadastrados.pesquisar(procurado);
-        } catch (NoSuchElementException excecao) {
-            produto = null;
-        }
+        produto = produtosCadastrados.pesquisar(procurado, null);
 
         System.out.println("Número de comparações realizadas: " + produtosCadastrados.getComparacoes());
         System.out.println("Tempo de processamento da pesquisa: " + produtosCadastrados.getTempo() + " ms");
@@ -145,20 +220,29 @@ public class App {
         System.out.print("Digite o ID do produto: ");
         int id = Integer.parseInt(teclado.nextLine());
 
-        try {
-            Produto produto = produtosCadastrados.pesquisar(id);
-            long comparacoes = produtosCadastrados.getComparacoes();
-            long tempoExecucao = produtosCadastrados.getTermino() - produtosCadastrados.getInicio();
+        Produto produto;
+        long comparacoes;
+        long tempoExecucao;
 
-            System.out.println("Produto encontrado: " + produto);
-            System.out.println("Comparações realizadas: " + comparacoes);
-            System.out.println("Tempo de execução (ns): " + tempoExecucao);
+        travaProdutos.readLock().lock();
+        try {
+            produto = produtosCadastrados.pesquisar(id, null);
+            comparacoes = produtosCadastrados.getComparacoes();
+            tempoExecucao = produtosCadastrados.getTermino() - produtosCadastrados.getInicio();
+        } finally {
+            travaProdutos.readLock().unlock();
+        }
 
-            return produto;
-        } catch (NoSuchElementException e) {
+        if (produto == null) {
             System.out.println("Produto com ID " + id + " não encontrado.");
             return null;
         }
+
+        System.out.println("Produto encontrado: " + produto);
+        System.out.println("Comparações realizadas: " + comparacoes);
+        System.out.println("Tempo de execução (ns): " + tempoExecucao);
+
+        return produto;
     }
 
     /**
@@ -171,20 +255,29 @@ public class App {
         System.out.print("Digite o nome do produto: ");
         String nome = teclado.nextLine();
 
-        try {
-            Produto produto = produtosCadastrados.pesquisar(nome);
-            long comparacoes = produtosCadastrados.getComparacoes();
-            long tempoExecucao = produtosCadastrados.getTermino() - produtosCadastrados.getInicio();
+        Produto produto;
+        long comparacoes;
+        long tempoExecucao;
 
-            System.out.println("Produto encontrado: " + produto);
-            System.out.println("Comparações realizadas: " + comparacoes);
-            System.out.println("Tempo de execução (ns): " + tempoExecucao);
+        travaProdutos.readLock().lock();
+        try {
+            produto = produtosCadastrados.pesquisar(nome, null);
+            comparacoes = produtosCadastrados.getComparacoes();
+            tempoExecucao = produtosCadastrados.getTermino() - produtosCadastrados.getInicio();
+        } finally {
+            travaProdutos.readLock().unlock();
+        }
 
-            return produto;
-        } catch (NoSuchElementException e) {
+        if (produto == null) {
             System.out.println("Produto com nome \"" + nome + "\" não encontrado.");
             return null;
         }
+
+        System.out.println("Produto encontrado: " + produto);
+        System.out.println("Comparações realizadas: " + comparacoes);
+        System.out.println("Tempo de execução (ns): " + tempoExecucao);
+
+        return produto;
     }
 
     private static void mostrarProduto(Produto produto) {
@@ -204,7 +297,58 @@ public class App {
 
         cabecalho();
         System.out.println("\nPRODUTOS CADASTRADOS:");
-        System.out.println(produtosCadastrados.toString());
+        travaProdutos.readLock().lock();
+        try {
+            System.out.println(produtosCadastrados.toString());
+        } finally {
+            travaProdutos.readLock().unlock();
+        }
+    }
+
+    /**
+     * Carrega os produtos nas duas árvores (por nome e por id) e passa a
+     * acompanhar o arquivo de dados: alterações no arquivo são aplicadas às
+     * árvores incrementalmente, sem recarregar o catálogo inteiro.
+     */
+    static void acompanharArquivo() {
+
+        cabecalho();
+        if (monitorArquivo != null) {
+            System.out.println("O arquivo " + nomeArquivoDados + " já está sendo acompanhado.");
+            return;
+        }
+
+        produtosCadastradosPorNome = new ABB<>();
+        produtosCadastradosPorId = new ABB<>();
+        monitorArquivo = new MonitorArquivoProdutos(nomeArquivoDados, produtosCadastradosPorNome,
+                produtosCadastradosPorId, travaProdutos);
+        try {
+            monitorArquivo.sincronizar();
+            monitorArquivo.iniciar();
+            quantosProdutos = monitorArquivo.quantidade();
+            System.out.println(quantosProdutos + " produtos carregados. Acompanhando alterações em "
+                    + nomeArquivoDados + ".");
+        } catch (IOException excecaoArquivo) {
+            System.out.println("Não foi possível carregar " + nomeArquivoDados + ": " + excecaoArquivo.getMessage());
+            monitorArquivo = null;
+        }
+    }
+
+    /**
+     * Encerra o acompanhamento do arquivo, se houver, antes de uma recarga completa.
+     * As duas árvores eram mantidas pelo monitor e compartilhavam os mesmos produtos:
+     * recarregar apenas uma delas deixaria a outra sem acompanhar o arquivo e com
+     * produtos (e identificadores) diferentes. Por isso, ambas são esvaziadas e
+     * devem ser carregadas novamente.
+     */
+    static void pararAcompanhamento() {
+        if (monitorArquivo != null) {
+            monitorArquivo.parar();
+            monitorArquivo = null;
+            produtosCadastradosPorNome = new ABB<>();
+            produtosCadastradosPorId = new ABB<>();
+            quantosProdutos = 0;
+        }
     }
 
     public static void main(String[] args) {
@@ -217,14 +361,22 @@ public class App {
             opcao = menu();
             switch (opcao) {
                 case 1 -> listarTodosOsProdutos(produtosCadastradosPorNome);
-                case 2 -> produtosCadastradosPorNome = lerProdutos(nomeArquivoDados, (p -> p.descricao));
-                case 3 -> produtosCadastradosPorId = lerProdutos(nomeArquivoDados, (p -> p.idProduto));
+                case 2 -> {
+                    pararAcompanhamento();
+                    produtosCadastradosPorNome = lerProdutos(nomeArquivoDados, (p -> p.descricao));
+                }
+                case 3 -> {
+                    pararAcompanhamento();
+                    produtosCadastradosPorId = lerProdutos(nomeArquivoDados, (p -> p.idProduto));
+                }
                 case 4 -> mostrarProduto(localizarProdutoNome(produtosCadastradosPorNome));
                 case 5 -> mostrarProduto(localizarProdutoID(produtosCadastradosPorId));
+                case 6 -> acompanharArquivo();
             }
             pausa();
         } while (opcao != 0);
 
+        pararAcompanhamento();
         teclado.close();
     }
 }
\ No newline at end of file
@@ -0,0 +1,294 @@
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Armazenamento de produtos fora do heap da JVM.
+ *
+ * Cada produto ocupa um registro de tamanho fixo em {@link ByteBuffer}s
+ * diretos, de modo que os dados do catálogo não são objetos do heap e não
+ * participam da coleta de lixo. As árvores de busca passam a associar cada
+ * chave à posição ({@code long}) do registro, por exemplo
+ * {@code ABB<Integer, Long>} (ver {@link #indexar(Function)} e
+ * {@code App.lerProdutos(String, ArmazemProdutos, Function)}), e os produtos são
+ * lidos sob demanda por meio de visões ({@link ProdutoArmazenado}).
+ *
+ * Os registros são divididos em segmentos de {@value #REGISTROS_POR_SEGMENTO}
+ * registros, pois um único {@link ByteBuffer} é limitado a 2 GiB. A posição é o
+ * deslocamento do registro considerando todos os segmentos em sequência; o
+ * armazenamento é limitado apenas pela memória disponível.
+ *
+ * Layout do registro ({@value #TAMANHO_REGISTRO} bytes):
+ * <pre>
+ *  0  tipo              (byte: 0 = removido, 1 = não perecível, 2 = perecível)
+ *  1  bytes da descrição (byte, sem sinal)
+ *  4  idProduto         (int)
+ *  8  precoCusto        (double)
+ * 16  margemLucro       (double)
+ * 24  dataDeValidade    (long, dia epoch; 0 para não perecíveis)
+ * 32  descrição         (até {@value #MAXIMO_DESCRICAO} bytes em UTF-8)
+ * </pre>
+ *
+ * Leituras concorrentes são seguras; gravações e remoções não.
+ */
+public class ArmazemProdutos {
+
+	static final int TAMANHO_REGISTRO = 96;
+	static final int MAXIMO_DESCRICAO = 64;
+
+	static final byte REMOVIDO = 0;
+	static final byte NAO_PERECIVEL = 1;
+	static final byte PERECIVEL = 2;
+
+	private static final int TIPO = 0;
+	private static final int BYTES_DESCRICAO = 1;
+	private static final int ID = 4;
+	private static final int PRECO_CUSTO = 8;
+	private static final int MARGEM_LUCRO = 16;
+	private static final int VALIDADE = 24;
+	private static final int DESCRICAO = 32;
+
+	private static final int BITS_SEGMENTO = 16;
+	static final int REGISTROS_POR_SEGMENTO = 1 << BITS_SEGMENTO;
+	private static final int TAMANHO_SEGMENTO = REGISTROS_POR_SEGMENTO * TAMANHO_REGISTRO;
+
+	private static final int CAPACIDADE_PADRAO = 1024;
+
+	private ByteBuffer[] segmentos;
+	private long quantidade; // quantidade de registros gravados, incluindo os removidos.
+
+	/**
+	 * Construtor da classe.
+	 *
+	 * @param capacidade quantidade inicial de registros. O armazenamento cresce
+	 *                   conforme necessário.
+	 */
+	public ArmazemProdutos(long capacidade) {
+
+		long registros = Math.max(1, capacidade);
+		int completos = (int) (registros / REGISTROS_POR_SEGMENTO);
+		int restantes = (int) (registros % REGISTROS_POR_SEGMENTO);
+
+		segmentos = new ByteBuffer[completos + ((restantes > 0) ? 1 : 0)];
+		for (int i = 0; i < completos; i++) {
+			segmentos[i] = ByteBuffer.allocateDirect(TAMANHO_SEGMENTO);
+		}
+		if (restantes > 0) {
+			/// Apenas o último segmento pode ser menor; ele cresce até o tamanho completo.
+			segmentos[completos] = ByteBuffer.allocateDirect(restantes * TAMANHO_REGISTRO);
+		}
+		quantidade = 0;
+	}
+
+	/**
+	 * Construtor da classe, com capacidade inicial padrão.
+	 */
+	public ArmazemProdutos() {
+		this(CAPACIDADE_PADRAO);
+	}
+
+	/**
+	 * Grava um produto em um novo registro.
+	 *
+	 * @param produto o produto que será gravado.
+	 * @return a posição do registro, que identifica o produto no armazenamento.
+	 * @throws IllegalArgumentException se a descrição exceder
+	 *                                  {@value #MAXIMO_DESCRICAO} bytes em UTF-8.
+	 */
+	public long gravar(Produto produto) {
+
+		byte[] descricao = produto.getDescricao().getBytes(StandardCharsets.UTF_8);
+		LocalDate dataDeValidade = dataDeValidade(produto);
+		long posicao;
+		ByteBuffer segmento;
+		int deslocamento;
+
+		if (descricao.length > MAXIMO_DESCRICAO) {
+			throw new IllegalArgumentException("Descrição do produto excede " + MAXIMO_DESCRICAO + " bytes.");
+		}
+
+		posicao = quantidade * TAMANHO_REGISTRO;
+		deslocamento = deslocamento(posicao);
+		while (indiceSegmento(posicao) >= segmentos.length
+				|| deslocamento + TAMANHO_REGISTRO > segmentos[indiceSegmento(posicao)].capacity()) {
+			crescer();
+		}
+		segmento = segmento(posicao);
+
+		if (dataDeValidade != null) {
+			segmento.put(deslocamento + TIPO, PERECIVEL);
+			segmento.putLong(deslocamento + VALIDADE, dataDeValidade.toEpochDay());
+		} else {
+			segmento.put(deslocamento + TIPO, NAO_PERECIVEL);
+			segmento.putLong(deslocamento + VALIDADE, 0L);
+		}
+		segmento.put(deslocamento + BYTES_DESCRICAO, (byte) descricao.length);
+		segmento.putInt(deslocamento + ID, produto.getIdProduto());
+		segmento.putDouble(deslocamento + PRECO_CUSTO, produto.getPrecoCusto());
+		segmento.putDouble(deslocamento + MARGEM_LUCRO, produto.getMargemLucro());
+		segmento.put(deslocamento + DESCRICAO, descricao);
+
+		quantidade++;
+		return posicao;
+	}
+
+	/**
+	 * Data de validade de um produto perecível, seja ele um objeto do heap ou uma
+	 * visão de outro registro armazenado.
+	 *
+	 * @param produto o produto que será gravado.
+	 * @return a data de validade, ou null se o produto não for perecível.
+	 */
+	private static LocalDate dataDeValidade(Produto produto) {
+		if (produto instanceof ProdutoPerecivel)
+			return ((ProdutoPerecivel) produto).getDataDeValidade();
+		if (produto instanceof ProdutoArmazenado)
+			return ((ProdutoArmazenado) produto).getDataDeValidade();
+		return null;
+	}
+
+	/**
+	 * Aumenta a capacidade do armazenamento: dobra o último segmento, se ele ainda
+	 * não tiver o tamanho completo, ou acrescenta um novo segmento. As posições já
+	 * entregues continuam válidas, pois os registros não mudam de posição.
+	 */
+	private void crescer() {
+
+		int ultimo = segmentos.length - 1;
+		ByteBuffer atual = segmentos[ultimo];
+
+		if (atual.capacity() < TAMANHO_SEGMENTO) {
+			ByteBuffer novo = ByteBuffer.allocateDirect(Math.min(atual.capacity() * 2, TAMANHO_SEGMENTO));
+			novo.put(0, atual, 0, atual.capacity());
+			segmentos[ultimo] = novo;
+		} else {
+			segmentos = Arrays.copyOf(segmentos, segmentos.length + 1);
+			segmentos[ultimo + 1] = ByteBuffer.allocateDirect(TAMANHO_SEGMENTO);
+		}
+	}
+
+	/**
+	 * Marca o registro como removido. O espaço não é reaproveitado.
+	 *
+	 * @param posicao a posição do registro.
+	 * @throws IllegalArgumentException se a posição não for de um registro válido.
+	 */
+	public void remover(long posicao) {
+		validar(posicao);
+		segmento(posicao).put(deslocamento(posicao) + TIPO, REMOVIDO);
+	}
+
+	/**
+	 * Retorna uma nova visão do produto gravado na posição indicada.
+	 *
+	 * @param posicao a posição do registro.
+	 * @return uma visão do produto.
+	 */
+	public ProdutoArmazenado ler(long posicao) {
+		return ler(posicao, new ProdutoArmazenado(this));
+	}
+
+	/**
+	 * Reposiciona uma visão existente no produto gravado na posição indicada,
+	 * sem criar novos objetos nem ler os campos do registro. A visão deixa de representar o
+	 * produto anterior.
+	 *
+	 * @param posicao a posição do registro.
+	 * @param visao   a visão que será reposicionada.
+	 * @return a própria visão, reposicionada.
+	 */
+	public ProdutoArmazenado ler(long posicao, ProdutoArmazenado visao) {
+		validar(posicao);
+		visao.posicionar(posicao);
+		return visao;
+	}
+
+	/**
+	 * Monta um índice sobre os produtos armazenados (exceto os removidos),
+	 * associando a chave de cada produto à posição de seu registro. Os registros
+	 * são percorridos com uma única visão, e apenas os campos usados pelo extrator
+	 * são lidos: indexar por {@code Produto::getIdProduto} não decodifica
+	 * nenhuma descrição.
+	 *
+	 * @param extratorDeChave função que extrai a chave de cada produto, pelos
+	 *                        métodos de acesso.
+	 * @return uma árvore com as posições dos produtos.
+	 */
+	public <K> ABB<K, Long> indexar(Function<Produto, K> extratorDeChave) {
+
+		ABB<K, Long> indice = new ABB<>();
+		List<Map.Entry<K, Long>> chaves = new ArrayList<>();
+		ProdutoArmazenado visao = new ProdutoArmazenado(this);
+
+		for (long registro = 0; registro < quantidade; registro++) {
+			long posicao = registro * TAMANHO_REGISTRO;
+			if (tipo(posicao) != REMOVIDO) {
+				visao.posicionar(posicao);
+				chaves.add(Map.entry(extratorDeChave.apply(visao), posicao));
+			}
+		}
+		indice.inserirTodos(chaves);
+		return indice;
+	}
+
+	/**
+	 * Quantidade de registros gravados, incluindo os removidos.
+	 *
+	 * @return a quantidade de registros.
+	 */
+	public long quantidade() {
+		return quantidade;
+	}
+
+	private void validar(long posicao) {
+		if (posicao < 0 || posicao >= quantidade * TAMANHO_REGISTRO || posicao % TAMANHO_REGISTRO != 0
+				|| tipo(posicao) == REMOVIDO) {
+			throw new IllegalArgumentException("Posição inválida no armazenamento de produtos: " + posicao);
+		}
+	}
+
+	private static int indiceSegmento(long posicao) {
+		return (int) ((posicao / TAMANHO_REGISTRO) >>> BITS_SEGMENTO);
+	}
+
+	private static int deslocamento(long posicao) {
+		return (int) ((posicao / TAMANHO_REGISTRO) & (REGISTROS_POR_SEGMENTO - 1)) * TAMANHO_REGISTRO;
+	}
+
+	private ByteBuffer segmento(long posicao) {
+		return segmentos[indiceSegmento(posicao)];
+	}
+
+	byte tipo(long posicao) {
+		return segmento(posicao).get(deslocamento(posicao) + TIPO);
+	}
+
+	int idProduto(long posicao) {
+		return segmento(posicao).getInt(deslocamento(posicao) + ID);
+	}
+
+	double precoCusto(long posicao) {
+		return segmento(posicao).getDouble(deslocamento(posicao) + PRECO_CUSTO);
+	}
+
+	double margemLucro(long posicao) {
+		return segmento(posicao).getDouble(deslocamento(posicao) + MARGEM_LUCRO);
+	}
+
+	long diaValidade(long posicao) {
+		return segmento(posicao).getLong(deslocamento(posicao) + VALIDADE);
+	}
+
+	String descricao(long posicao) {
+		ByteBuffer segmento = segmento(posicao);
+		int deslocamento = deslocamento(posicao);
+		byte[] descricao = new byte[Byte.toUnsignedInt(segmento.get(deslocamento + BYTES_DESCRICAO))];
+		segmento.get(deslocamento + DESCRICAO, descricao);
+		return new String(descricao, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,503 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Árvore B+ com ordem (quantidade máxima de filhos por nodo) configurável.
+ *
+ * Cada nodo guarda suas chaves ordenadas em um vetor contíguo, pesquisado por
+ * busca binária: uma pesquisa visita apenas log_ordem(n) nodos, o que reduz a
+ * quantidade de acessos à memória em relação à {@link ABB}, que visita um nodo
+ * por nível. Os itens ficam somente nas folhas, que são encadeadas da esquerda
+ * para a direita, o que torna o caminhamento em ordem e as pesquisas por
+ * intervalo sequenciais.
+ *
+ * A remoção retira o item da folha sem redistribuir ou fundir nodos: as chaves
+ * dos nodos internos continuam válidas como separadoras, e folhas vazias
+ * permanecem no encadeamento. A ocupação mínima dos nodos, portanto, só é
+ * garantida enquanto não houver remoções.
+ */
+public class ArvoreBMais<K, V> implements IMapeamento<K, V> {
+
+	/** Ordem padrão: cada nodo ocupa poucas linhas de cache por vetor. */
+	public static final int ORDEM_PADRAO = 64;
+
+	private static final int ORDEM_MINIMA = 3;
+
+	/** Nodo da árvore. Guarda até (ordem - 1) chaves; a posição extra acomoda a chave que causa a divisão. */
+	private abstract static class NoBMais {
+		Object[] chaves;
+		int quantidade;
+
+		NoBMais(int ordem) {
+			chaves = new Object[ordem];
+			quantidade = 0;
+		}
+	}
+
+	/** Nodo interno: a sub-árvore filhos[i] contém as chaves menores que chaves[i]. */
+	private static class NoInterno extends NoBMais {
+		NoBMais[] filhos;
+
+		NoInterno(int ordem) {
+			super(ordem);
+			filhos = new NoBMais[ordem + 1];
+		}
+	}
+
+	/** Folha: guarda os itens associados a cada chave e a referência para a próxima folha. */
+	private static class Folha extends NoBMais {
+		Object[] itens;
+		Folha proxima;
+
+		Folha(int ordem) {
+			super(ordem);
+			itens = new Object[ordem];
+		}
+	}
+
+	private final int ordem;
+	private final Comparator<K> comparador; // comparador empregado para definir "menores" e "maiores".
+	private NoBMais raiz;
+	private Folha primeiraFolha; // início do encadeamento de folhas.
+	private NoBMais novoIrmao; // nodo criado pela última divisão, durante a inserção.
+	private Object chavePromovida; // chave separadora do nodo criado pela última divisão.
+	private int tamanho;
+	private long comparacoes;
+	private long inicio;
+	private long termino;
+
+	/**
+	 * Construtor da classe.
+	 * O comparador padrão de ordem natural e a ordem padrão serão utilizados.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArvoreBMais() {
+		this(ORDEM_PADRAO, (Comparator<K>) Comparator.naturalOrder());
+	}
+
+	/**
+	 * Construtor da classe.
+	 * O comparador padrão de ordem natural será utilizado.
+	 *
+	 * @param ordem quantidade máxima de filhos de cada nodo (mínimo 3).
+	 */
+	@SuppressWarnings("unchecked")
+	public ArvoreBMais(int ordem) {
+		this(ordem, (Comparator<K>) Comparator.naturalOrder());
+	}
+
+	/**
+	 * Construtor da classe.
+	 * Esse construtor cria uma nova árvore B+ vazia.
+	 *
+	 * @param ordem      quantidade máxima de filhos de cada nodo (mínimo 3).
+	 * @param comparador o comparador a ser utilizado para organizar os elementos da
+	 *                   árvore.
+	 */
+	public ArvoreBMais(int ordem, Comparator<K> comparador) {
+		if (ordem < ORDEM_MINIMA) {
+			throw new IllegalArgumentException("A ordem da árvore B+ deve ser, no mínimo, " + ORDEM_MINIMA + ".");
+		}
+		this.ordem = ordem;
+		this.comparador = comparador;
+		primeiraFolha = new Folha(ordem);
+		raiz = primeiraFolha;
+		tamanho = 0;
+	}
+
+	public Boolean vazia() {
+		return (tamanho == 0);
+	}
+
+	@SuppressWarnings("unchecked")
+	private int comparar(K chave, Object outra) {
+		comparacoes++;
+		return comparador.compare(chave, (K) outra);
+	}
+
+	/**
+	 * Busca binária pela chave no vetor ordenado do nodo.
+	 *
+	 * @return a posição da chave, se presente; caso contrário, (-(ponto de
+	 *         inserção) - 1), como em {@code Arrays.binarySearch}.
+	 */
+	private int buscarNoNodo(NoBMais nodo, K chave) {
+
+		int esquerda = 0;
+		int direita = nodo.quantidade - 1;
+
+		while (esquerda <= direita) {
+			int meio = (esquerda + direita) >>> 1;
+			int comparacao = comparar(chave, nodo.chaves[meio]);
+			if (comparacao == 0)
+				return meio;
+			else if (comparacao < 0)
+				direita = meio - 1;
+			else
+				esquerda = meio + 1;
+		}
+		return -(esquerda + 1);
+	}
+
+	/**
+	 * Posição do filho que deve conter a chave: chaves iguais à separadora ficam
+	 * na sub-árvore da direita.
+	 */
+	private int posicaoDoFilho(NoInterno nodo, K chave) {
+		int posicao = buscarNoNodo(nodo, chave);
+		return (posicao >= 0) ? posicao + 1 : -posicao - 1;
+	}
+
+	/**
+	 * Desce da raiz até a folha que contém (ou deveria conter) a chave.
+	 */
+	private Folha localizarFolha(K chave) {
+		NoBMais atual = raiz;
+		while (atual instanceof NoInterno) {
+			NoInterno interno = (NoInterno) atual;
+			atual = interno.filhos[posicaoDoFilho(interno, chave)];
+		}
+		return (Folha) atual;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V itemDaFolha(Folha folha, int posicao) {
+		return (V) folha.itens[posicao];
+	}
+
+	@Override
+	/**
+	 * Pesquisa um item na árvore.
+	 *
+	 * @param chave a chave do item que será pesquisado na árvore.
+	 * @return o valor associado à chave.
+	 * @throws NoSuchElementException se a chave não for localizada na árvore.
+	 */
+	public V pesquisar(K chave) {
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		Folha folha = localizarFolha(chave);
+		int posicao = buscarNoNodo(folha, chave);
+		termino = System.nanoTime();
+		if (posicao < 0)
+			throw new NoSuchElementException("O item não foi localizado na árvore!");
+		return itemDaFolha(folha, posicao);
+	}
+
+	@Override
+	public V pesquisar(K chave, V valorPadrao) {
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		Folha folha = localizarFolha(chave);
+		int posicao = buscarNoNodo(folha, chave);
+		termino = System.nanoTime();
+		return (posicao >= 0) ? itemDaFolha(folha, posicao) : valorPadrao;
+	}
+
+	@Override
+	public boolean contem(K chave) {
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		Folha folha = localizarFolha(chave);
+		int posicao = buscarNoNodo(folha, chave);
+		termino = System.nanoTime();
+		return (posicao >= 0);
+	}
+
+	/**
+	 * Retorna, em ordem, os itens cujas chaves estão no intervalo fechado
+	 * [inicioIntervalo, fimIntervalo]. A pesquisa desce uma única vez até a
+	 * primeira folha do intervalo e segue o encadeamento de folhas a partir dela.
+	 *
+	 * @param inicioIntervalo menor chave do intervalo.
+	 * @param fimIntervalo    maior chave do intervalo.
+	 * @return lista com os itens do intervalo, em ordem crescente de chave.
+	 */
+	public List<V> intervalo(K inicioIntervalo, K fimIntervalo) {
+
+		List<V> itens = new ArrayList<>();
+		Folha folha;
+		int posicao;
+
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		folha = localizarFolha(inicioIntervalo);
+		posicao = buscarNoNodo(folha, inicioIntervalo);
+		if (posicao < 0)
+			posicao = -posicao - 1;
+
+		while (folha != null) {
+			for (; posicao < folha.quantidade; posicao++) {
+				if (comparar(fimIntervalo, folha.chaves[posicao]) < 0) {
+					termino = System.nanoTime();
+					return itens;
+				}
+				itens.add(itemDaFolha(folha, posicao));
+			}
+			folha = folha.proxima;
+			posicao = 0;
+		}
+		termino = System.nanoTime();
+		return itens;
+	}
+
+	@Override
+	/**
+	 * Insere um item na árvore, associando-o à chave fornecida. Se a chave já
+	 * existir, seu item é substituído.
+	 *
+	 * @param chave a chave associada ao item que será inserido na árvore.
+	 * @param item  o item que será inserido na árvore.
+	 *
+	 * @return o tamanho atualizado da árvore após a execução da operação de
+	 *         inserção.
+	 */
+	public int inserir(K chave, V item) {
+
+		novoIrmao = null;
+		inserir(raiz, chave, item);
+
+		if (novoIrmao != null) {
+			/// A raiz foi dividida: a árvore cresce um nível.
+			NoInterno novaRaiz = new NoInterno(ordem);
+			novaRaiz.chaves[0] = chavePromovida;
+			novaRaiz.filhos[0] = raiz;
+			novaRaiz.filhos[1] = novoIrmao;
+			novaRaiz.quantidade = 1;
+			raiz = novaRaiz;
+			novoIrmao = null;
+			chavePromovida = null;
+		}
+		return tamanho;
+	}
+
+	/**
+	 * Insere recursivamente o item na sub-árvore. Se o nodo precisar ser dividido,
+	 * o novo nodo e a chave separadora ficam em {@code novoIrmao} e
+	 * {@code chavePromovida}, para que o nodo pai os incorpore.
+	 */
+	private void inserir(NoBMais nodo, K chave, V item) {
+
+		if (nodo instanceof Folha) {
+			inserirNaFolha((Folha) nodo, chave, item);
+			return;
+		}
+
+		NoInterno interno = (NoInterno) nodo;
+		int posicao = posicaoDoFilho(interno, chave);
+
+		inserir(interno.filhos[posicao], chave, item);
+		if (novoIrmao == null)
+			return;
+
+		/// O filho foi dividido: a chave promovida e o novo filho entram neste nodo.
+		System.arraycopy(interno.chaves, posicao, interno.chaves, posicao + 1, interno.quantidade - posicao);
+		System.arraycopy(interno.filhos, posicao + 1, interno.filhos, posicao + 2, interno.quantidade - posicao);
+		interno.chaves[posicao] = chavePromovida;
+		interno.filhos[posicao + 1] = novoIrmao;
+		interno.quantidade++;
+		novoIrmao = null;
+
+		if (interno.quantidade == ordem)
+			dividirInterno(interno);
+	}
+
+	private void inserirNaFolha(Folha folha, K chave, V item) {
+
+		int posicao = buscarNoNodo(folha, chave);
+
+		if (posicao >= 0) {
+			folha.itens[posicao] = item;
+			return;
+		}
+
+		posicao = -posicao - 1;
+		System.arraycopy(folha.chaves, posicao, folha.chaves, posicao + 1, folha.quantidade - posicao);
+		System.arraycopy(folha.itens, posicao, folha.itens, posicao + 1, folha.quantidade - posicao);
+		folha.chaves[posicao] = chave;
+		folha.itens[posicao] = item;
+		folha.quantidade++;
+		tamanho++;
+
+		if (folha.quantidade == ordem)
+			dividirFolha(folha);
+	}
+
+	private void dividirFolha(Folha folha) {
+
+		Folha irmao = new Folha(ordem);
+		int ficam = folha.quantidade / 2;
+		int saem = folha.quantidade - ficam;
+
+		System.arraycopy(folha.chaves, ficam, irmao.chaves, 0, saem);
+		System.arraycopy(folha.itens, ficam, irmao.itens, 0, saem);
+		for (int i = ficam; i < folha.quantidade; i++) {
+			folha.chaves[i] = null;
+			folha.itens[i] = null;
+		}
+		folha.quantidade = ficam;
+		irmao.quantidade = saem;
+
+		irmao.proxima = folha.proxima;
+		folha.proxima = irmao;
+
+		novoIrmao = irmao;
+		chavePromovida = irmao.chaves[0];
+	}
+
+	private void dividirInterno(NoInterno interno) {
+
+		NoInterno irmao = new NoInterno(ordem);
+		int meio = interno.quantidade / 2;
+		int saem = interno.quantidade - meio - 1;
+
+		/// A chave do meio sobe para o pai; não permanece em nenhum dos dois nodos.
+		chavePromovida = interno.chaves[meio];
+		System.arraycopy(interno.chaves, meio + 1, irmao.chaves, 0, saem);
+		System.arraycopy(interno.filhos, meio + 1, irmao.filhos, 0, saem + 1);
+		for (int i = meio; i < interno.quantidade; i++) {
+			interno.chaves[i] = null;
+			interno.filhos[i + 1] = null;
+		}
+		interno.quantidade = meio;
+		irmao.quantidade = saem;
+
+		novoIrmao = irmao;
+	}
+
+	@Override
+	/**
+	 * Remove um item da árvore. O item é retirado da folha sem reorganização dos
+	 * demais nodos.
+	 *
+	 * @param chave a chave do item que deverá ser localizado e removido da árvore.
+	 * @return o valor associado ao item removido.
+	 */
+	public V remover(K chave) {
+
+		Folha folha;
+		int posicao;
+		V removido;
+
+		if (vazia()) {
+			throw new NoSuchElementException("A árvore está vazia!");
+		}
+		folha = localizarFolha(chave);
+		posicao = buscarNoNodo(folha, chave);
+		if (posicao < 0) {
+			throw new NoSuchElementException("Chave não encontrada!");
+		}
+
+		removido = itemDaFolha(folha, posicao);
+		System.arraycopy(folha.chaves, posicao + 1, folha.chaves, posicao, folha.quantidade - posicao - 1);
+		System.arraycopy(folha.itens, posicao + 1, folha.itens, posicao, folha.quantidade - posicao - 1);
+		folha.quantidade--;
+		folha.chaves[folha.quantidade] = null;
+		folha.itens[folha.quantidade] = null;
+		tamanho--;
+		return removido;
+	}
+
+	@Override
+	/**
+	 * Insere um lote de itens na árvore, em ordem crescente de chave: inserções
+	 * consecutivas atingem as mesmas folhas, que permanecem na cache do
+	 * processador. As medições se referem ao lote inteiro.
+	 *
+	 * @param itens pares chave/item que serão inseridos na árvore.
+	 * @return o tamanho atualizado da árvore após a inserção do lote.
+	 */
+	public int inserirTodos(Collection<? extends Map.Entry<K, V>> itens) {
+
+		long inicioLote = System.nanoTime();
+		long total = 0;
+
+		for (Map.Entry<K, V> item : Lote.ordenarSemRepeticao(itens, comparador)) {
+			comparacoes = 0;
+			inserir(item.getKey(), item.getValue());
+			total += comparacoes;
+		}
+		comparacoes = total;
+		inicio = inicioLote;
+		termino = System.nanoTime();
+		return tamanho;
+	}
+
+	@Override
+	/**
+	 * Pesquisa um lote de chaves em ordem crescente. Enquanto a próxima chave não
+	 * for maior que a última chave da folha atual, ela é procurada diretamente
+	 * nessa folha, sem nova descida a partir da raiz. As medições se referem ao
+	 * lote inteiro.
+	 *
+	 * @param chaves as chaves que serão pesquisadas na árvore.
+	 * @return lista com os itens associados a cada chave, na ordem das chaves, ou
+	 *         {@code null} para as chaves não localizadas.
+	 */
+	public List<V> pesquisarTodos(List<K> chaves) {
+
+		@SuppressWarnings("unchecked")
+		V[] resultados = (V[]) new Object[chaves.size()];
+		Folha folha = null;
+
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		for (int posicao : Lote.ordemCrescente(chaves, comparador)) {
+			K chave = chaves.get(posicao);
+			/// As chaves chegam em ordem crescente: se a chave não passa da última chave
+			/// da folha atual, ela só pode estar nessa folha.
+			if (folha == null || folha.quantidade == 0 || comparar(chave, folha.chaves[folha.quantidade - 1]) > 0)
+				folha = localizarFolha(chave);
+			int encontrada = buscarNoNodo(folha, chave);
+			if (encontrada >= 0)
+				resultados[posicao] = itemDaFolha(folha, encontrada);
+		}
+		termino = System.nanoTime();
+		return Arrays.asList(resultados);
+	}
+
+	@Override
+	public int tamanho() {
+		return tamanho;
+	}
+
+	public int getOrdem() {
+		return ordem;
+	}
+
+	@Override
+	public String toString() {
+		return percorrer();
+	}
+
+	@Override
+	/**
+	 * Caminhamento em ordem, seguindo o encadeamento de folhas.
+	 */
+	public String percorrer() {
+
+		StringBuilder texto = new StringBuilder();
+
+		for (Folha folha = primeiraFolha; folha != null; folha = folha.proxima) {
+			for (int i = 0; i < folha.quantidade; i++) {
+				texto.append(folha.itens[i]).append(' ');
+			}
+		}
+		return texto.toString().trim();
+	}
+
+	@Override
+	public long getComparacoes() {
+		return comparacoes;
+	}
+
+	@Override
+	public double getTempo() {
+		return (termino - inicio) / 1_000_000.0;
+	}
+}
@@ -0,0 +1,357 @@
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Árvore splay: árvore binária de busca autoajustável.
+ *
+ * Toda operação leva o nodo acessado (ou o último nodo visitado, em caso de
+ * pesquisa sem sucesso) até a raiz, por meio de rotações. Chaves acessadas com
+ * frequência ficam próximas da raiz, o que favorece padrões de acesso
+ * concentrados em poucas chaves. O custo amortizado das operações é O(log n),
+ * sem necessidade de armazenar informações de balanceamento nos nodos.
+ *
+ * O splay é feito de cima para baixo (top-down), sem recursão. Como as
+ * pesquisas reorganizam a árvore, esta classe não é segura para uso
+ * concorrente, nem mesmo para leituras.
+ */
+public class ArvoreSplay<K, V> implements IMapeamento<K, V> {
+
+	private No<K, V> raiz; // referência à raiz da árvore.
+	private Comparator<K> comparador; // comparador empregado para definir "menores" e "maiores".
+	private No<K, V> cabecalho; // nodo auxiliar reaproveitado em cada operação de splay.
+	private int tamanho;
+	private long comparacoes;
+	private long inicio;
+	private long termino;
+
+	/**
+	 * Construtor da classe.
+	 * O comparador padrão de ordem natural será utilizado.
+	 */
+	@SuppressWarnings("unchecked")
+	public ArvoreSplay() {
+		this((Comparator<K>) Comparator.naturalOrder());
+	}
+
+	/**
+	 * Construtor da classe.
+	 * Esse construtor cria uma nova árvore splay vazia.
+	 *
+	 * @param comparador o comparador a ser utilizado para organizar os elementos da
+	 *                   árvore.
+	 */
+	public ArvoreSplay(Comparator<K> comparador) {
+		raiz = null;
+		tamanho = 0;
+		cabecalho = new No<>(null, null);
+		this.comparador = comparador;
+	}
+
+	public Boolean vazia() {
+		return (this.raiz == null);
+	}
+
+	/**
+	 * Reorganiza a sub-árvore de modo que o nodo com a chave procurada se torne sua
+	 * raiz. Se a chave não existir, o último nodo visitado na descida se torna a
+	 * raiz.
+	 *
+	 * @param raizArvore raiz da sub-árvore que será reorganizada.
+	 * @param chave      chave procurada.
+	 * @return a nova raiz da sub-árvore.
+	 */
+	private No<K, V> splay(No<K, V> raizArvore, K chave) {
+
+		No<K, V> esquerda, direita, filho;
+		int comparacao;
+
+		if (raizArvore == null)
+			return null;
+
+		cabecalho.setEsquerda(null);
+		cabecalho.setDireita(null);
+		esquerda = direita = cabecalho;
+
+		while (true) {
+			comparacoes++;
+			comparacao = comparador.compare(chave, raizArvore.getChave());
+			if (comparacao < 0) {
+				filho = raizArvore.getEsquerda();
+				if (filho == null)
+					break;
+				comparacoes++;
+				if (comparador.compare(chave, filho.getChave()) < 0) {
+					/// Caso zig-zig: rotação à direita antes de descer.
+					raizArvore.setEsquerda(filho.getDireita());
+					filho.setDireita(raizArvore);
+					raizArvore = filho;
+					if (raizArvore.getEsquerda() == null)
+						break;
+				}
+				/// A raiz atual e sua sub-árvore direita passam para a árvore da direita.
+				direita.setEsquerda(raizArvore);
+				direita = raizArvore;
+				raizArvore = raizArvore.getEsquerda();
+			} else if (comparacao > 0) {
+				filho = raizArvore.getDireita();
+				if (filho == null)
+					break;
+				comparacoes++;
+				if (comparador.compare(chave, filho.getChave()) > 0) {
+					/// Caso zag-zag: rotação à esquerda antes de descer.
+					raizArvore.setDireita(filho.getEsquerda());
+					filho.setEsquerda(raizArvore);
+					raizArvore = filho;
+					if (raizArvore.getDireita() == null)
+						break;
+				}
+				/// A raiz atual e sua sub-árvore esquerda passam para a árvore da esquerda.
+				esquerda.setDireita(raizArvore);
+				esquerda = raizArvore;
+				raizArvore = raizArvore.getDireita();
+			} else {
+				break;
+			}
+		}
+
+		/// Montagem final: as árvores da esquerda e da direita se tornam as
+		/// sub-árvores da nova raiz.
+		esquerda.setDireita(raizArvore.getEsquerda());
+		direita.setEsquerda(raizArvore.getDireita());
+		raizArvore.setEsquerda(cabecalho.getDireita());
+		raizArvore.setDireita(cabecalho.getEsquerda());
+		return raizArvore;
+	}
+
+	/**
+	 * Leva a chave procurada até a raiz e indica se ela foi encontrada.
+	 *
+	 * @param chave chave procurada.
+	 * @return verdadeiro se, após o splay, a raiz contém a chave procurada.
+	 */
+	private boolean localizar(K chave) {
+		raiz = splay(raiz, chave);
+		if (raiz == null)
+			return false;
+		comparacoes++;
+		return (comparador.compare(chave, raiz.getChave()) == 0);
+	}
+
+	@Override
+	/**
+	 * Pesquisa um item na árvore, levando-o até a raiz.
+	 *
+	 * @param chave a chave do item que será pesquisado na árvore.
+	 * @return o valor associado à chave.
+	 * @throws NoSuchElementException se a chave não for localizada na árvore.
+	 */
+	public V pesquisar(K chave) {
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		boolean encontrado = localizar(chave);
+		termino = System.nanoTime();
+		if (!encontrado)
+			throw new NoSuchElementException("O item não foi localizado na árvore!");
+		return raiz.getItem();
+	}
+
+	@Override
+	public V pesquisar(K chave, V valorPadrao) {
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		boolean encontrado = localizar(chave);
+		termino = System.nanoTime();
+		return encontrado ? raiz.getItem() : valorPadrao;
+	}
+
+	@Override
+	public boolean contem(K chave) {
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		boolean encontrado = localizar(chave);
+		termino = System.nanoTime();
+		return encontrado;
+	}
+
+	@Override
+	/**
+	 * Insere um item na árvore, associando-o à chave fornecida. O novo nodo se
+	 * torna a raiz da árvore. Se a chave já existir, seu item é substituído.
+	 *
+	 * @param chave a chave associada ao item que será inserido na árvore.
+	 * @param item  o item que será inserido na árvore.
+	 *
+	 * @return o tamanho atualizado da árvore após a execução da operação de
+	 *         inserção.
+	 */
+	public int inserir(K chave, V item) {
+
+		No<K, V> novo;
+		int comparacao;
+
+		if (raiz == null) {
+			raiz = new No<>(chave, item);
+			tamanho++;
+			return tamanho;
+		}
+
+		raiz = splay(raiz, chave);
+		comparacao = comparador.compare(chave, raiz.getChave());
+		if (comparacao == 0) {
+			raiz.setItem(item);
+			return tamanho;
+		}
+
+		novo = new No<>(chave, item);
+		if (comparacao < 0) {
+			novo.setEsquerda(raiz.getEsquerda());
+			novo.setDireita(raiz);
+			raiz.setEsquerda(null);
+		} else {
+			novo.setDireita(raiz.getDireita());
+			novo.setEsquerda(raiz);
+			raiz.setDireita(null);
+		}
+		raiz = novo;
+		tamanho++;
+		return tamanho;
+	}
+
+	@Override
+	/**
+	 * Remove um item da árvore. O nodo removido é levado até a raiz e suas
+	 * sub-árvores são unidas por meio de um splay na sub-árvore esquerda.
+	 *
+	 * @param chave a chave do item que deverá ser localizado e removido da árvore.
+	 * @return o valor associado ao item removido.
+	 */
+	public V remover(K chave) {
+
+		V removido;
+		No<K, V> direita;
+
+		if (vazia()) {
+			throw new NoSuchElementException("A árvore está vazia!");
+		}
+		if (!localizar(chave)) {
+			throw new NoSuchElementException("Chave não encontrada!");
+		}
+
+		removido = raiz.getItem();
+		if (raiz.getEsquerda() == null) {
+			raiz = raiz.getDireita();
+		} else {
+			/// Todas as chaves da sub-árvore esquerda são menores que a chave removida:
+			/// o splay leva a maior delas até a raiz, que fica sem filho à direita.
+			direita = raiz.getDireita();
+			raiz = splay(raiz.getEsquerda(), chave);
+			raiz.setDireita(direita);
+		}
+		tamanho--;
+		return removido;
+	}
+
+	@Override
+	/**
+	 * Insere um lote de itens na árvore, em ordem crescente de chave: cada chave é
+	 * inserida a partir da raiz deixada pela anterior, e o acesso sequencial a
+	 * uma árvore splay custa O(n) no total. As medições se referem ao lote
+	 * inteiro.
+	 *
+	 * @param itens pares chave/item que serão inseridos na árvore.
+	 * @return o tamanho atualizado da árvore após a inserção do lote.
+	 */
+	public int inserirTodos(Collection<? extends Map.Entry<K, V>> itens) {
+
+		long inicioLote = System.nanoTime();
+		long total = 0;
+
+		for (Map.Entry<K, V> item : Lote.ordenarSemRepeticao(itens, comparador)) {
+			comparacoes = 0;
+			inserir(item.getKey(), item.getValue());
+			total += comparacoes;
+		}
+		comparacoes = total;
+		inicio = inicioLote;
+		termino = System.nanoTime();
+		return tamanho;
+	}
+
+	@Override
+	/**
+	 * Pesquisa um lote de chaves em ordem crescente, aproveitando a proximidade
+	 * entre cada chave e a anterior, que acabou de ser levada à raiz. As medições
+	 * se referem ao lote inteiro.
+	 *
+	 * @param chaves as chaves que serão pesquisadas na árvore.
+	 * @return lista com os itens associados a cada chave, na ordem das chaves, ou
+	 *         {@code null} para as chaves não localizadas.
+	 */
+	public List<V> pesquisarTodos(List<K> chaves) {
+
+		@SuppressWarnings("unchecked")
+		V[] resultados = (V[]) new Object[chaves.size()];
+		long inicioLote = System.nanoTime();
+		long total = 0;
+
+		for (int posicao : Lote.ordemCrescente(chaves, comparador)) {
+			comparacoes = 0;
+			if (localizar(chaves.get(posicao)))
+				resultados[posicao] = raiz.getItem();
+			total += comparacoes;
+		}
+		comparacoes = total;
+		inicio = inicioLote;
+		termino = System.nanoTime();
+		return Arrays.asList(resultados);
+	}
+
+	@Override
+	public int tamanho() {
+		return tamanho;
+	}
+
+	@Override
+	public String toString() {
+		return percorrer();
+	}
+
+	@Override
+	/**
+	 * Caminhamento em ordem, sem recursão: a árvore splay pode ficar
+	 * temporariamente muito desbalanceada (por exemplo, após inserções em ordem).
+	 */
+	public String percorrer() {
+
+		StringBuilder texto = new StringBuilder();
+		Deque<No<K, V>> pilha = new ArrayDeque<>();
+		No<K, V> atual = raiz;
+
+		while (atual != null || !pilha.isEmpty()) {
+			while (atual != null) {
+				pilha.push(atual);
+				atual = atual.getEsquerda();
+			}
+			atual = pilha.pop();
+			texto.append(atual.getItem()).append(' ');
+			atual = atual.getDireita();
+		}
+		return texto.toString().trim();
+	}
+
+	@Override
+	public long getComparacoes() {
+		return comparacoes;
+	}
+
+	@Override
+	public double getTempo() {
+		return (termino - inicio) / 1_000_000.0;
+	}
+}
@@ -0,0 +1,369 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Modo não interativo de consulta ao catálogo de produtos.
+ *
+ * Lê consultas, uma por linha, da entrada padrão, de um arquivo ou de
+ * conexões TCP locais, e escreve uma resposta por consulta, na mesma ordem,
+ * por meio de um escritor com buffer. Cada consulta é executada em uma thread
+ * própria (virtual, quando a JVM oferece threads virtuais; caso contrário, em
+ * um conjunto fixo de threads, uma por núcleo) sobre índices somente leitura,
+ * compartilhados por todas as consultas. Com {@code --fora-do-heap}, os
+ * produtos são gravados em um {@link ArmazemProdutos} e os índices guardam
+ * apenas as posições dos registros.
+ *
+ * Consultas:
+ * <pre>
+ * id 10005                 produto com o identificador informado
+ * nome Cola Azul marinho   produto com a descrição informada
+ * intervalo 10005 10010    produtos com identificadores no intervalo fechado
+ * </pre>
+ * Respostas: {@code OK idProduto;dados} para um produto encontrado,
+ * {@code NAO_ENCONTRADO}, {@code OK n} seguido de n linhas de produtos para
+ * intervalos, ou {@code ERRO mensagem}.
+ *
+ * Uso: {@code java ConsultasEmLote [--dados produtos.txt] [--fora-do-heap] [--consultas arquivo | --porta n]}
+ *
+ * @param <T> tipo dos itens guardados nos índices: o próprio produto ou a
+ *            posição de seu registro no armazenamento.
+ */
+public class ConsultasEmLote<T> {
+
+	/** Quantidade máxima de consultas aguardando a escrita da resposta, por fluxo. */
+	private static final int CONSULTAS_PENDENTES = 1024;
+
+	/** Intervalo, em milissegundos, entre as verificações do escritor enquanto a fila está cheia. */
+	private static final long ESPERA_VAGA_MS = 100;
+
+	private static final int TAMANHO_BUFFER = 64 * 1024;
+
+	/** Marca o fim de um fluxo de consultas na fila de respostas pendentes. */
+	private static final Future<String> FIM = CompletableFuture.completedFuture(null);
+
+	private final ABB<Integer, T> produtosPorId;
+	private final ABB<String, T> produtosPorNome;
+	private final Function<T, Produto> leitorDeProduto;
+	private final ExecutorService consultas;
+	private final ExecutorService conexoes;
+
+	/**
+	 * Construtor da classe. As árvores não devem ser modificadas enquanto houver
+	 * consultas em andamento.
+	 *
+	 * @param produtosPorId   Árvore de produtos organizados por identificador.
+	 * @param produtosPorNome Árvore de produtos organizados por descrição.
+	 * @param leitorDeProduto Função que obtém o produto a partir do item de uma
+	 *                        árvore. Deve ser segura para uso concorrente.
+	 */
+	public ConsultasEmLote(ABB<Integer, T> produtosPorId, ABB<String, T> produtosPorNome,
+			Function<T, Produto> leitorDeProduto) {
+		this.produtosPorId = produtosPorId;
+		this.produtosPorNome = produtosPorNome;
+		this.leitorDeProduto = leitorDeProduto;
+		/// Sem threads virtuais, as consultas (que só usam processador) ficam em um conjunto
+		/// fixo, e as threads que leem e escrevem nos fluxos, em outro, para que nunca
+		/// ocupem as threads de que as consultas precisam.
+		this.consultas = criarExecutor(() -> Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors()));
+		this.conexoes = criarExecutor(Executors::newCachedThreadPool);
+	}
+
+	/**
+	 * Cria um executor com uma thread virtual por tarefa, se a JVM oferecer
+	 * threads virtuais, ou o executor alternativo, caso contrário.
+	 *
+	 * @param alternativa fábrica do executor usado sem threads virtuais.
+	 * @return o executor criado.
+	 */
+	static ExecutorService criarExecutor(Supplier<ExecutorService> alternativa) {
+		try {
+			Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) fabrica.invoke(null);
+		} catch (ReflectiveOperationException | UnsupportedOperationException excecao) {
+			return alternativa.get();
+		}
+	}
+
+	/**
+	 * Executa uma consulta e monta a resposta.
+	 *
+	 * @param consulta a linha de consulta.
+	 * @return a resposta, possivelmente com várias linhas.
+	 */
+	String responder(String consulta) {
+
+		String[] partes = consulta.trim().split("\\s+", 2);
+		String argumento = (partes.length > 1) ? partes[1] : "";
+
+		try {
+			switch (partes[0]) {
+				case "id":
+					return responder(produto(produtosPorId.pesquisarSemMedicao(Integer.parseInt(argumento), null)));
+				case "nome":
+					return responder(produto(produtosPorNome.pesquisarSemMedicao(argumento, null)));
+				case "intervalo":
+					String[] limites = argumento.split("\\s+");
+					if (limites.length != 2)
+						return "ERRO intervalo requer o identificador inicial e o final";
+					return responder(produtosPorId.intervalo(Integer.parseInt(limites[0]),
+							Integer.parseInt(limites[1])));
+				default:
+					return "ERRO consulta desconhecida: " + partes[0];
+			}
+		} catch (RuntimeException excecao) {
+			return "ERRO " + excecao.getMessage();
+		}
+	}
+
+	private static String responder(Produto produto) {
+		if (produto == null)
+			return "NAO_ENCONTRADO";
+		return "OK " + produto.getIdProduto() + ";" + produto.gerarDadosTexto();
+	}
+
+	private String responder(List<T> itens) {
+		StringBuilder resposta = new StringBuilder("OK ").append(itens.size());
+		for (T item : itens) {
+			Produto produto = produto(item);
+			resposta.append('\n').append(produto.getIdProduto()).append(';').append(produto.gerarDadosTexto());
+		}
+		return resposta.toString();
+	}
+
+	private Produto produto(T item) {
+		return (item != null) ? leitorDeProduto.apply(item) : null;
+	}
+
+	/**
+	 * Atende um fluxo de consultas: cada linha lida vira uma tarefa, e as
+	 * respostas são escritas na ordem das consultas, à medida que ficam prontas.
+	 * A leitura é suspensa quando há {@value #CONSULTAS_PENDENTES} respostas
+	 * aguardando escrita. Se a escrita falhar (por exemplo, porque o cliente
+	 * desconectou), a leitura é encerrada e as consultas pendentes, canceladas.
+	 *
+	 * @param entrada fluxo de consultas.
+	 * @param saida   fluxo de respostas. Não é fechado ao final.
+	 * @return a quantidade de consultas atendidas.
+	 * @throws IOException          em caso de erro de leitura ou de escrita.
+	 * @throws InterruptedException se a thread for interrompida durante o atendimento.
+	 */
+	public long atender(BufferedReader entrada, BufferedWriter saida) throws IOException, InterruptedException {
+
+		BlockingQueue<Future<String>> pendentes = new ArrayBlockingQueue<>(CONSULTAS_PENDENTES);
+		Future<Void> escritor = conexoes.submit(() -> escrever(pendentes, saida));
+		long quantidade = 0;
+		String linha;
+
+		try {
+			while (!escritor.isDone() && (linha = entrada.readLine()) != null) {
+				if (linha.isBlank())
+					continue;
+				String consulta = linha;
+				Future<String> resposta = consultas.submit(() -> responder(consulta));
+				if (!enfileirar(pendentes, resposta, escritor)) {
+					resposta.cancel(false);
+					break;
+				}
+				quantidade++;
+			}
+		} finally {
+			enfileirar(pendentes, FIM, escritor);
+		}
+
+		try {
+			escritor.get();
+		} catch (ExecutionException excecao) {
+			/// O escritor terminou antes do fim do fluxo: as respostas restantes não
+			/// seriam entregues.
+			List<Future<String>> descartadas = new ArrayList<>();
+			pendentes.drainTo(descartadas);
+			for (Future<String> resposta : descartadas) {
+				resposta.cancel(false);
+			}
+			if (excecao.getCause() instanceof IOException)
+				throw (IOException) excecao.getCause();
+			throw new IllegalStateException(excecao.getCause());
+		}
+		return quantidade;
+	}
+
+	/**
+	 * Coloca a resposta na fila de respostas pendentes, aguardando uma vaga
+	 * apenas enquanto o escritor estiver ativo.
+	 *
+	 * @return false se o escritor terminou e a resposta não foi enfileirada.
+	 */
+	private static boolean enfileirar(BlockingQueue<Future<String>> pendentes, Future<String> resposta,
+			Future<Void> escritor) throws InterruptedException {
+		while (!pendentes.offer(resposta, ESPERA_VAGA_MS, TimeUnit.MILLISECONDS)) {
+			if (escritor.isDone())
+				return false;
+		}
+		return true;
+	}
+
+	private Void escrever(BlockingQueue<Future<String>> pendentes, BufferedWriter saida)
+			throws IOException, InterruptedException, ExecutionException {
+
+		Future<String> resposta;
+
+		while ((resposta = pendentes.take()) != FIM) {
+			saida.write(resposta.get());
+			saida.newLine();
+			/// Sem respostas pendentes, o buffer é enviado, para que clientes interativos
+			/// não esperem o buffer encher.
+			if (pendentes.isEmpty())
+				saida.flush();
+		}
+		saida.flush();
+		return null;
+	}
+
+	/**
+	 * Atende conexões TCP na interface local (loopback), cada uma como um fluxo
+	 * de consultas independente. Não retorna enquanto o processo estiver ativo.
+	 *
+	 * @param porta a porta em que as conexões serão aceitas.
+	 * @throws IOException se não for possível abrir a porta.
+	 */
+	public void servir(int porta) throws IOException {
+		try (ServerSocket servidor = new ServerSocket(porta, 0, InetAddress.getLoopbackAddress())) {
+			System.err.println("Atendendo consultas em " + servidor.getLocalSocketAddress());
+			while (true) {
+				Socket conexao = servidor.accept();
+				conexoes.submit(() -> atenderConexao(conexao));
+			}
+		}
+	}
+
+	private void atenderConexao(Socket conexao) {
+		try (conexao) {
+			long inicio = System.nanoTime();
+			long quantidade = atender(leitor(conexao.getInputStream()), escritor(conexao.getOutputStream()));
+			relatar(conexao.getRemoteSocketAddress().toString(), quantidade, System.nanoTime() - inicio);
+		} catch (IOException excecao) {
+			System.err.println("Conexão " + conexao.getRemoteSocketAddress() + " encerrada com erro: " + excecao);
+		} catch (InterruptedException excecao) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Encerra os executores. Consultas já iniciadas são concluídas.
+	 */
+	public void encerrar() {
+		consultas.shutdown();
+		conexoes.shutdown();
+	}
+
+	private static BufferedReader leitor(InputStream entrada) {
+		return new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+	}
+
+	private static BufferedWriter escritor(OutputStream saida) {
+		return new BufferedWriter(new OutputStreamWriter(saida, StandardCharsets.UTF_8), TAMANHO_BUFFER);
+	}
+
+	private static void relatar(String origem, long quantidade, long nanossegundos) {
+		double segundos = nanossegundos / 1_000_000_000.0;
+		System.err.printf("%s: %d consultas em %.3f s (%.0f consultas/s)%n", origem, quantidade, segundos,
+				(segundos > 0) ? quantidade / segundos : 0.0);
+	}
+
+	/**
+	 * Carrega o catálogo no heap: os dois índices compartilham os mesmos produtos,
+	 * para que um produto tenha o mesmo identificador em qualquer consulta.
+	 */
+	private static ConsultasEmLote<Produto> carregar(String nomeArquivoDados) throws IOException {
+
+		List<Produto> produtos = App.lerCatalogo(nomeArquivoDados);
+		List<Map.Entry<Integer, Produto>> porId = new ArrayList<>(produtos.size());
+		List<Map.Entry<String, Produto>> porNome = new ArrayList<>(produtos.size());
+		for (Produto produto : produtos) {
+			porId.add(Map.entry(produto.idProduto, produto));
+			porNome.add(Map.entry(produto.descricao, produto));
+		}
+		ABB<Integer, Produto> produtosPorId = new ABB<>();
+		ABB<String, Produto> produtosPorNome = new ABB<>();
+		produtosPorId.inserirTodos(porId);
+		produtosPorNome.inserirTodos(porNome);
+
+		return new ConsultasEmLote<>(produtosPorId, produtosPorNome, Function.identity());
+	}
+
+	/**
+	 * Grava o catálogo em um armazenamento fora do heap; os índices guardam as
+	 * posições dos registros, e cada resposta lê o produto por uma visão própria.
+	 */
+	private static ConsultasEmLote<Long> carregarForaDoHeap(String nomeArquivoDados) throws IOException {
+
+		ArmazemProdutos armazem = new ArmazemProdutos();
+		ABB<Integer, Long> produtosPorId = App.lerProdutos(nomeArquivoDados, armazem, Produto::getIdProduto);
+		if (produtosPorId == null)
+			throw new IOException("Não foi possível ler " + nomeArquivoDados);
+		ABB<String, Long> produtosPorNome = armazem.indexar(Produto::getDescricao);
+
+		return new ConsultasEmLote<>(produtosPorId, produtosPorNome, armazem::ler);
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		String nomeArquivoDados = "produtos.txt";
+		String nomeArquivoConsultas = null;
+		Integer porta = null;
+		boolean foraDoHeap = false;
+
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--dados" -> nomeArquivoDados = args[++i];
+				case "--consultas" -> nomeArquivoConsultas = args[++i];
+				case "--porta" -> porta = Integer.parseInt(args[++i]);
+				case "--fora-do-heap" -> foraDoHeap = true;
+				default -> throw new IllegalArgumentException("Opção desconhecida: " + args[i]);
+			}
+		}
+
+		ConsultasEmLote<?> atendimento = foraDoHeap ? carregarForaDoHeap(nomeArquivoDados)
+				: carregar(nomeArquivoDados);
+		try {
+			if (porta != null) {
+				atendimento.servir(porta);
+			} else {
+				InputStream entrada = (nomeArquivoConsultas != null) ? new FileInputStream(nomeArquivoConsultas)
+						: System.in;
+				try (BufferedReader leitor = leitor(entrada)) {
+					long inicio = System.nanoTime();
+					long quantidade = atendimento.atender(leitor, escritor(System.out));
+					relatar((nomeArquivoConsultas != null) ? nomeArquivoConsultas : "entrada padrão", quantidade,
+							System.nanoTime() - inicio);
+				}
+			}
+		} finally {
+			atendimento.encerrar();
+		}
+	}
+}
@@ -0,0 +1,199 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Comparação de desempenho entre as implementações de {@link IMapeamento}.
+ *
+ * As estruturas são carregadas com os produtos do arquivo de dados de duas
+ * formas: em um único lote, com {@link IMapeamento#inserirTodos}, como em
+ * {@code App.lerProdutos} (carga "lote"), e uma chave por vez, na ordem do
+ * arquivo (carga "sequencial"). Como os identificadores estão em ordem
+ * crescente no arquivo, a carga sequencial degenera a {@link ABB} em uma lista;
+ * ela é mantida para mostrar esse efeito, mas não representa a árvore montada
+ * pela aplicação. Em seguida, as estruturas recebem consultas com chaves
+ * sorteadas segundo uma distribuição de Zipf: poucas chaves concentram a maior
+ * parte das consultas. O expoente 0 corresponde à distribuição uniforme.
+ *
+ * Em seguida, a {@link ABB} é comparada à {@link ArvoreBMais}, com diferentes
+ * ordens, em coleções sintéticas de chaves inteiras muito maiores que o
+ * catálogo, inseridas em ordem aleatória e consultadas uniformemente.
+ *
+ * Uso: {@code java Desempenho [arquivo] [consultas] [expoente]}
+ */
+public class Desempenho {
+
+	private static final String ARQUIVO_PADRAO = "produtos.txt";
+	private static final int CONSULTAS_PADRAO = 1_000_000;
+	private static final double EXPOENTE_PADRAO = 1.0;
+	private static final long SEMENTE = 42;
+	private static final int[] TAMANHOS_LARGA_ESCALA = { 100_000, 1_000_000, 4_000_000 };
+	private static final int[] ORDENS_BMAIS = { 16, 64, 256 };
+
+	/**
+	 * Gera uma sequência de consultas cujas chaves seguem uma distribuição de
+	 * Zipf. A chave de posição i no ranking é sorteada com probabilidade
+	 * proporcional a 1 / (i + 1)^expoente. O ranking é uma permutação aleatória das
+	 * chaves, para que as chaves mais consultadas não sejam simplesmente as
+	 * menores.
+	 *
+	 * @param chaves     chaves que podem ser consultadas.
+	 * @param quantidade quantidade de consultas.
+	 * @param expoente   expoente da distribuição (0 = uniforme).
+	 * @param aleatorio  gerador de números aleatórios.
+	 * @return lista com as chaves consultadas, em ordem.
+	 */
+	static <K> List<K> gerarConsultasZipf(List<K> chaves, int quantidade, double expoente, Random aleatorio) {
+
+		List<K> ranking = new ArrayList<>(chaves);
+		double[] acumulada = new double[ranking.size()];
+		double soma = 0.0;
+		List<K> consultas = new ArrayList<>(quantidade);
+
+		Collections.shuffle(ranking, aleatorio);
+		for (int i = 0; i < acumulada.length; i++) {
+			soma += 1.0 / Math.pow(i + 1, expoente);
+			acumulada[i] = soma;
+		}
+
+		for (int i = 0; i < quantidade; i++) {
+			double sorteio = aleatorio.nextDouble() * soma;
+			int posicao = Arrays.binarySearch(acumulada, sorteio);
+			if (posicao < 0)
+				posicao = -posicao - 1;
+			consultas.add(ranking.get(Math.min(posicao, acumulada.length - 1)));
+		}
+		return consultas;
+	}
+
+	/**
+	 * Carrega uma estrutura com os itens e executa a sequência
+	 * de consultas duas vezes: a primeira para aquecimento da JVM (e, no caso das
+	 * estruturas autoajustáveis, para levá-las ao regime permanente) e a segunda
+	 * para medição.
+	 *
+	 * @param emLote se verdadeiro, os itens são inseridos em um único lote;
+	 *               caso contrário, um por vez, na ordem fornecida.
+	 * @return vetor com {comparações por consulta, nanossegundos por consulta}.
+	 */
+	static <K, V> double[] medir(IMapeamento<K, V> estrutura, List<V> itens, Function<V, K> extratorDeChave,
+			List<K> consultas, boolean emLote) {
+
+		long comparacoes = 0;
+		long inicio, termino;
+
+		if (emLote) {
+			List<Map.Entry<K, V>> lote = new ArrayList<>(itens.size());
+			for (V item : itens) {
+				lote.add(Map.entry(extratorDeChave.apply(item), item));
+			}
+			estrutura.inserirTodos(lote);
+		} else {
+			for (V item : itens) {
+				estrutura.inserir(extratorDeChave.apply(item), item);
+			}
+		}
+		for (K chave : consultas) {
+			estrutura.pesquisar(chave, null);
+		}
+
+		inicio = System.nanoTime();
+		for (K chave : consultas) {
+			estrutura.pesquisar(chave, null);
+			comparacoes += estrutura.getComparacoes();
+		}
+		termino = System.nanoTime();
+
+		return new double[] { (double) comparacoes / consultas.size(),
+				(double) (termino - inicio) / consultas.size() };
+	}
+
+	static <K> void compararEstruturas(String nomeChave, Map<String, Supplier<IMapeamento<K, Produto>>> estruturas,
+			List<Produto> produtos, Function<Produto, K> extratorDeChave, int quantidade, double expoente) {
+
+		List<K> chaves = new ArrayList<>();
+		for (Produto produto : produtos) {
+			chaves.add(extratorDeChave.apply(produto));
+		}
+
+		for (double s : new double[] { 0.0, expoente }) {
+			List<K> consultas = gerarConsultasZipf(chaves, quantidade, s, new Random(SEMENTE));
+			for (Map.Entry<String, Supplier<IMapeamento<K, Produto>>> estrutura : estruturas.entrySet()) {
+				for (boolean emLote : new boolean[] { true, false }) {
+					double[] resultado = medir(estrutura.getValue().get(), produtos, extratorDeChave, consultas,
+							emLote);
+					System.out.printf("%-8s %-6s %-11s %-12s %14.2f %14.1f%n", estrutura.getKey(), nomeChave,
+							emLote ? "lote" : "sequencial", (s == 0.0) ? "uniforme" : String.format("zipf(%.2f)", s),
+							resultado[0], resultado[1]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Compara a ABB e a árvore B+ em coleções de chaves inteiras distintas,
+	 * inseridas em ordem aleatória, com consultas uniformes.
+	 *
+	 * @param tamanhos   tamanhos das coleções avaliadas.
+	 * @param quantidade quantidade de consultas por coleção.
+	 */
+	static void compararEmLargaEscala(int[] tamanhos, int quantidade) {
+
+		for (int tamanho : tamanhos) {
+			Random aleatorio = new Random(SEMENTE);
+			List<Integer> chaves = new ArrayList<>(tamanho);
+			for (int i = 0; i < tamanho; i++) {
+				chaves.add(i);
+			}
+			Collections.shuffle(chaves, aleatorio);
+			List<Integer> consultas = gerarConsultasZipf(chaves, quantidade, 0.0, aleatorio);
+
+			Map<String, Supplier<IMapeamento<Integer, Integer>>> estruturas = new LinkedHashMap<>();
+			estruturas.put("ABB", ABB::new);
+			for (int ordem : ORDENS_BMAIS) {
+				estruturas.put("B+(" + ordem + ")", () -> new ArvoreBMais<>(ordem));
+			}
+
+			for (Map.Entry<String, Supplier<IMapeamento<Integer, Integer>>> estrutura : estruturas.entrySet()) {
+				double[] resultado = medir(estrutura.getValue().get(), chaves, Function.identity(), consultas, false);
+				System.out.printf("%-8s %10d %14.2f %14.1f%n", estrutura.getKey(), tamanho, resultado[0], resultado[1]);
+			}
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		String nomeArquivoDados = (args.length > 0) ? args[0] : ARQUIVO_PADRAO;
+		int quantidade = (args.length > 1) ? Integer.parseInt(args[1]) : CONSULTAS_PADRAO;
+		double expoente = (args.length > 2) ? Double.parseDouble(args[2]) : EXPOENTE_PADRAO;
+
+		List<Produto> produtos = App.lerCatalogo(nomeArquivoDados);
+
+		Map<String, Supplier<IMapeamento<Integer, Produto>>> porId = new LinkedHashMap<>();
+		porId.put("ABB", ABB::new);
+		porId.put("Splay", ArvoreSplay::new);
+		porId.put("B+", ArvoreBMais::new);
+
+		Map<String, Supplier<IMapeamento<String, Produto>>> porNome = new LinkedHashMap<>();
+		porNome.put("ABB", ABB::new);
+		porNome.put("Splay", ArvoreSplay::new);
+		porNome.put("B+", ArvoreBMais::new);
+
+		System.out.println(produtos.size() + " produtos, " + quantidade + " consultas por cenário");
+		System.out.printf("%-8s %-6s %-11s %-12s %14s %14s%n", "Estrutura", "Chave", "Carga", "Consultas", "Comparações",
+				"ns/consulta");
+		compararEstruturas("id", porId, produtos, p -> p.idProduto, quantidade, expoente);
+		compararEstruturas("nome", porNome, produtos, p -> p.descricao, quantidade, expoente);
+
+		System.out.println();
+		System.out.printf("%-8s %10s %14s %14s%n", "Estrutura", "Itens", "Comparações", "ns/consulta");
+		compararEmLargaEscala(TAMANHOS_LARGA_ESCALA, quantidade);
+	}
+}
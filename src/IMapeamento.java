@@ -1,8 +1,16 @@
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
 public interface IMapeamento<K, V> extends IMedicao {
 
     public int inserir(K chave, V item);
     public V pesquisar(K chave);
+    public V pesquisar(K chave, V valorPadrao);
+    public boolean contem(K chave);
     public V remover(K chave);
     public int tamanho();
     public String percorrer();
+    public int inserirTodos(Collection<? extends Map.Entry<K, V>> itens);
+    public List<V> pesquisarTodos(List<K> chaves);
 }
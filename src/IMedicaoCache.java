@@ -0,0 +1,6 @@
+public interface IMedicaoCache {
+
+	public long getAcertos();
+	public long getFalhas();
+	public double getTaxaDeAcerto();
+}
@@ -0,0 +1,247 @@
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * Índice de produtos perecíveis organizado por data de validade.
+ *
+ * Os produtos são mantidos em um heap mínimo cuja chave é o dia epoch
+ * ({@link LocalDate#toEpochDay()}) da data de validade: o produto mais
+ * próximo de vencer fica sempre na raiz do heap. As operações em lote recebem
+ * a data de referência como parâmetro, de modo que o relógio do sistema é
+ * lido uma única vez por lote, e não uma vez por produto.
+ *
+ * A posição de cada produto no heap é registrada, de modo que um produto
+ * específico pode ser removido (por exemplo, quando deixa o catálogo) sem
+ * reconstruir o índice.
+ */
+public class IndiceValidade {
+
+	private static final int CAPACIDADE_INICIAL = 16;
+
+	private ProdutoPerecivel[] produtos; // heap mínimo de produtos, organizado pela validade.
+	private long[] dias;                 // dia epoch da validade de cada posição do heap.
+	private final Map<ProdutoPerecivel, Integer> posicoes; // posição de cada produto no heap.
+	private int tamanho;
+
+	/**
+	 * Construtor da classe.
+	 * Cria um índice de validade vazio.
+	 */
+	public IndiceValidade() {
+		produtos = new ProdutoPerecivel[CAPACIDADE_INICIAL];
+		dias = new long[CAPACIDADE_INICIAL];
+		posicoes = new IdentityHashMap<>();
+		tamanho = 0;
+	}
+
+	/**
+	 * Insere um produto perecível no índice. Custo O(log n).
+	 *
+	 * @param produto o produto que será inserido no índice.
+	 * @return o tamanho atualizado do índice.
+	 * @throws IllegalArgumentException se o produto já estiver no índice.
+	 */
+	public int inserir(ProdutoPerecivel produto) {
+		if (posicoes.containsKey(produto)) {
+			throw new IllegalArgumentException("O produto já está no índice de validade!");
+		}
+		if (tamanho == produtos.length) {
+			produtos = Arrays.copyOf(produtos, tamanho * 2);
+			dias = Arrays.copyOf(dias, tamanho * 2);
+		}
+		produtos[tamanho] = produto;
+		dias[tamanho] = produto.getDataDeValidade().toEpochDay();
+		posicoes.put(produto, tamanho);
+		subir(tamanho);
+		tamanho++;
+		return tamanho;
+	}
+
+	/**
+	 * Retorna, sem remover, o produto mais próximo de vencer.
+	 *
+	 * @return o produto com a menor data de validade do índice.
+	 * @throws NoSuchElementException se o índice estiver vazio.
+	 */
+	public ProdutoPerecivel proximoAVencer() {
+		if (vazio()) {
+			throw new NoSuchElementException("O índice de validade está vazio!");
+		}
+		return produtos[0];
+	}
+
+	/**
+	 * Lista os produtos que vencem em até {@code prazo} dias a partir da data de
+	 * referência, em ordem crescente de validade. Produtos já vencidos também são
+	 * listados. O heap não é alterado: a busca percorre apenas os k produtos
+	 * retornados e seus filhos imediatos, com custo O(k log k).
+	 *
+	 * @param prazo quantidade de dias, a partir da data de referência.
+	 * @param hoje  data de referência, lida uma única vez pelo chamador.
+	 * @return lista com os produtos que vencem dentro do prazo.
+	 */
+	public List<ProdutoPerecivel> vencendoEm(int prazo, LocalDate hoje) {
+
+		long limite = hoje.toEpochDay() + prazo;
+		List<ProdutoPerecivel> vencendo = new ArrayList<>();
+		PriorityQueue<Integer> candidatos = new PriorityQueue<>((a, b) -> Long.compare(dias[a], dias[b]));
+
+		if (tamanho > 0 && dias[0] <= limite) {
+			candidatos.add(0);
+		}
+		while (!candidatos.isEmpty()) {
+			int posicao = candidatos.poll();
+			vencendo.add(produtos[posicao]);
+			/// Pela propriedade do heap, se um filho vence depois do limite, toda a
+			/// sub-árvore abaixo dele também vence e pode ser descartada.
+			int esquerda = 2 * posicao + 1;
+			int direita = esquerda + 1;
+			if (esquerda < tamanho && dias[esquerda] <= limite)
+				candidatos.add(esquerda);
+			if (direita < tamanho && dias[direita] <= limite)
+				candidatos.add(direita);
+		}
+		return vencendo;
+	}
+
+	/**
+	 * Lista os produtos que vencem em até {@code prazo} dias a partir de hoje.
+	 *
+	 * @param prazo quantidade de dias, a partir da data atual.
+	 * @return lista com os produtos que vencem dentro do prazo.
+	 */
+	public List<ProdutoPerecivel> vencendoEm(int prazo) {
+		return vencendoEm(prazo, LocalDate.now());
+	}
+
+	/**
+	 * Lista os produtos que, na data de referência, recebem o desconto por
+	 * proximidade da validade.
+	 *
+	 * @param hoje data de referência, lida uma única vez pelo chamador.
+	 * @return lista com os produtos em desconto, em ordem crescente de validade.
+	 */
+	public List<ProdutoPerecivel> emDesconto(LocalDate hoje) {
+		return vencendoEm(ProdutoPerecivel.PRAZO_DESCONTO, hoje);
+	}
+
+	/**
+	 * Remove do índice, em lote, todos os produtos vencidos na data de referência.
+	 * Custo O(k log n), sendo k a quantidade de produtos removidos.
+	 *
+	 * @param hoje data de referência, lida uma única vez pelo chamador.
+	 * @return lista com os produtos removidos, em ordem crescente de validade.
+	 */
+	public List<ProdutoPerecivel> removerVencidos(LocalDate hoje) {
+
+		long diaHoje = hoje.toEpochDay();
+		List<ProdutoPerecivel> vencidos = new ArrayList<>();
+
+		while (tamanho > 0 && dias[0] < diaHoje) {
+			vencidos.add(removerRaiz());
+		}
+		return vencidos;
+	}
+
+	/**
+	 * Remove do índice, em lote, todos os produtos vencidos até hoje.
+	 *
+	 * @return lista com os produtos removidos, em ordem crescente de validade.
+	 */
+	public List<ProdutoPerecivel> removerVencidos() {
+		return removerVencidos(LocalDate.now());
+	}
+
+	/**
+	 * Remove um produto específico do índice. Custo O(log n).
+	 *
+	 * @param produto o produto que será removido.
+	 * @return true se o produto estava no índice.
+	 */
+	public boolean remover(ProdutoPerecivel produto) {
+
+		Integer posicao = posicoes.remove(produto);
+
+		if (posicao == null)
+			return false;
+		tamanho--;
+		if (posicao < tamanho) {
+			/// O último produto do heap ocupa a posição liberada e é reposicionado
+			/// para cima ou para baixo, conforme sua validade.
+			produtos[posicao] = produtos[tamanho];
+			dias[posicao] = dias[tamanho];
+			posicoes.put(produtos[posicao], posicao);
+			subir(posicao);
+			descer(posicao);
+		}
+		produtos[tamanho] = null;
+		return true;
+	}
+
+	/**
+	 * Verifica se o produto está no índice.
+	 *
+	 * @param produto o produto procurado.
+	 * @return true se o produto estiver no índice.
+	 */
+	public boolean contem(ProdutoPerecivel produto) {
+		return posicoes.containsKey(produto);
+	}
+
+	public int tamanho() {
+		return tamanho;
+	}
+
+	public boolean vazio() {
+		return (tamanho == 0);
+	}
+
+	private ProdutoPerecivel removerRaiz() {
+		ProdutoPerecivel removido = produtos[0];
+		remover(removido);
+		return removido;
+	}
+
+	private void subir(int posicao) {
+		while (posicao > 0) {
+			int pai = (posicao - 1) / 2;
+			if (dias[pai] <= dias[posicao])
+				break;
+			trocar(pai, posicao);
+			posicao = pai;
+		}
+	}
+
+	private void descer(int posicao) {
+		while (true) {
+			int menor = posicao;
+			int esquerda = 2 * posicao + 1;
+			int direita = esquerda + 1;
+			if (esquerda < tamanho && dias[esquerda] < dias[menor])
+				menor = esquerda;
+			if (direita < tamanho && dias[direita] < dias[menor])
+				menor = direita;
+			if (menor == posicao)
+				return;
+			trocar(posicao, menor);
+			posicao = menor;
+		}
+	}
+
+	private void trocar(int a, int b) {
+		ProdutoPerecivel produto = produtos[a];
+		produtos[a] = produtos[b];
+		produtos[b] = produto;
+		posicoes.put(produtos[a], a);
+		posicoes.put(produtos[b], b);
+		long dia = dias[a];
+		dias[a] = dias[b];
+		dias[b] = dia;
+	}
+}
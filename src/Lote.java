@@ -0,0 +1,62 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Funções auxiliares para as operações em lote de {@link IMapeamento}
+ * ({@code inserirTodos} e {@code pesquisarTodos}), que processam as chaves em
+ * ordem crescente para aproveitar a localidade da estrutura.
+ */
+final class Lote {
+
+	private Lote() {
+	}
+
+	/**
+	 * Ordena as posições de uma lista de chaves pela ordem das chaves, sem alterar
+	 * a lista. A ordenação é estável: chaves iguais mantêm a ordem original.
+	 *
+	 * @param chaves     chaves do lote.
+	 * @param comparador comparador da estrutura.
+	 * @return vetor com as posições das chaves, em ordem crescente de chave.
+	 */
+	static <K> Integer[] ordemCrescente(List<K> chaves, Comparator<K> comparador) {
+
+		Integer[] posicoes = new Integer[chaves.size()];
+
+		for (int i = 0; i < posicoes.length; i++) {
+			posicoes[i] = i;
+		}
+		Arrays.sort(posicoes, (a, b) -> comparador.compare(chaves.get(a), chaves.get(b)));
+		return posicoes;
+	}
+
+	/**
+	 * Ordena os itens de um lote de inserção pela chave. Se uma chave aparecer
+	 * mais de uma vez, prevalece a última ocorrência, como aconteceria com
+	 * inserções individuais na ordem do lote.
+	 *
+	 * @param itens      pares chave/item do lote.
+	 * @param comparador comparador da estrutura.
+	 * @return lista com os pares, em ordem crescente e sem chaves repetidas.
+	 */
+	static <K, V> List<Map.Entry<K, V>> ordenarSemRepeticao(Collection<? extends Map.Entry<K, V>> itens,
+			Comparator<K> comparador) {
+
+		List<Map.Entry<K, V>> ordenados = new ArrayList<>(itens);
+		List<Map.Entry<K, V>> unicos = new ArrayList<>(ordenados.size());
+
+		ordenados.sort((a, b) -> comparador.compare(a.getKey(), b.getKey()));
+		for (Map.Entry<K, V> item : ordenados) {
+			int ultimo = unicos.size() - 1;
+			if (ultimo >= 0 && comparador.compare(unicos.get(ultimo).getKey(), item.getKey()) == 0)
+				unicos.set(ultimo, item);
+			else
+				unicos.add(item);
+		}
+		return unicos;
+	}
+}
@@ -0,0 +1,347 @@
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Decorador que mantém um cache limitado de resultados de pesquisa na frente de
+ * qualquer implementação de {@link IMapeamento}, como a {@link ABB}.
+ *
+ * Pesquisas repetidas são respondidas pelo cache sem percorrer a estrutura
+ * decorada. Pesquisas sem sucesso também são armazenadas (cache negativo), de
+ * modo que chaves inexistentes consultadas com frequência não custam uma
+ * descida completa na árvore. As operações de inserção e remoção são
+ * repassadas à estrutura decorada e invalidam a chave correspondente no cache.
+ *
+ * O cache usa {@code equals}/{@code hashCode} das chaves, que devem ser
+ * coerentes com o comparador da estrutura decorada. Itens {@code null} não são
+ * armazenados. Esta classe não é segura para uso concorrente.
+ */
+public class MapeamentoComCache<K, V> implements IMapeamento<K, V>, IMedicaoCache {
+
+	/** Políticas de remoção disponíveis quando o cache atinge sua capacidade. */
+	public enum Politica {
+		/** Remove a chave usada há mais tempo. */
+		LRU,
+		/**
+		 * Janela LRU pequena (1% da capacidade, no mínimo uma chave) seguida da
+		 * região principal, que fica vazia quando a capacidade é 1. Uma
+		 * chave que sai da janela só entra na região principal se tiver sido
+		 * acessada com mais frequência do que a candidata a ser removida de lá.
+		 */
+		W_TINY_LFU
+	}
+
+	/** Marcador armazenado no cache para chaves que não existem na estrutura. */
+	private static final Object AUSENTE = new Object();
+
+	private final IMapeamento<K, V> mapeamento; // estrutura decorada.
+	private final Politica politica;
+	private final int capacidadeJanela;
+	private final int capacidadePrincipal;
+	private final LinkedHashMap<K, Object> janela;
+	private final LinkedHashMap<K, Object> principal;
+	private final SketchFrequencia sketch;
+	private long acertos;
+	private long falhas;
+	private long comparacoes;
+	private long inicio;
+	private long termino;
+
+	/**
+	 * Construtor da classe.
+	 *
+	 * @param mapeamento a estrutura cujas pesquisas serão armazenadas em cache.
+	 * @param capacidade quantidade máxima de chaves mantidas no cache.
+	 * @param politica   política de remoção usada quando o cache está cheio.
+	 */
+	public MapeamentoComCache(IMapeamento<K, V> mapeamento, int capacidade, Politica politica) {
+
+		if (capacidade < 1) {
+			throw new IllegalArgumentException("A capacidade do cache deve ser positiva.");
+		}
+		this.mapeamento = mapeamento;
+		this.politica = politica;
+		if (politica == Politica.LRU) {
+			capacidadeJanela = capacidade;
+			capacidadePrincipal = 0;
+			sketch = null;
+		} else {
+			capacidadeJanela = Math.max(1, capacidade / 100);
+			capacidadePrincipal = capacidade - capacidadeJanela;
+			sketch = new SketchFrequencia(capacidade);
+		}
+		janela = new LinkedHashMap<>(16, 0.75f, true);
+		principal = new LinkedHashMap<>(16, 0.75f, true);
+	}
+
+	/**
+	 * Construtor da classe.
+	 * A política W-TinyLFU será utilizada.
+	 *
+	 * @param mapeamento a estrutura cujas pesquisas serão armazenadas em cache.
+	 * @param capacidade quantidade máxima de chaves mantidas no cache.
+	 */
+	public MapeamentoComCache(IMapeamento<K, V> mapeamento, int capacidade) {
+		this(mapeamento, capacidade, Politica.W_TINY_LFU);
+	}
+
+	@Override
+	/**
+	 * Pesquisa a chave primeiro no cache e, em caso de falha no cache, na
+	 * estrutura decorada, armazenando o resultado (inclusive a ausência da chave).
+	 *
+	 * @param chave a chave do item que será pesquisado.
+	 * @return o valor associado à chave.
+	 * @throws NoSuchElementException se a chave não existir na estrutura.
+	 */
+	public V pesquisar(K chave) {
+		Object valor = buscar(chave);
+		if (valor == AUSENTE)
+			throw new NoSuchElementException("O item não foi localizado na árvore!");
+		return converter(valor);
+	}
+
+	@Override
+	public V pesquisar(K chave, V valorPadrao) {
+		Object valor = buscar(chave);
+		return (valor == AUSENTE) ? valorPadrao : converter(valor);
+	}
+
+	@Override
+	public boolean contem(K chave) {
+		return (buscar(chave) != AUSENTE);
+	}
+
+	/**
+	 * Busca a chave no cache e, se necessário, na estrutura decorada.
+	 *
+	 * @param chave a chave do item que será pesquisado.
+	 * @return o valor associado à chave, ou o marcador {@code AUSENTE}.
+	 */
+	private Object buscar(K chave) {
+
+		Object valor;
+
+		comparacoes = 0;
+		inicio = System.nanoTime();
+		if (sketch != null)
+			sketch.registrar(chave);
+
+		valor = janela.get(chave);
+		if (valor == null && capacidadePrincipal > 0)
+			valor = principal.get(chave);
+
+		if (valor != null) {
+			acertos++;
+		} else {
+			falhas++;
+			/// Como itens null não são armazenados, null como valor padrão indica a
+			/// ausência da chave sem exceções e com uma única descida na estrutura. O
+			/// marcador AUSENTE só existe dentro do cache.
+			V encontrado = mapeamento.pesquisar(chave, null);
+			comparacoes = mapeamento.getComparacoes();
+			valor = (encontrado != null) ? encontrado : AUSENTE;
+			armazenar(chave, valor);
+		}
+		termino = System.nanoTime();
+		return valor;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V converter(Object valor) {
+		return (V) valor;
+	}
+
+	private void armazenar(K chave, Object valor) {
+
+		janela.put(chave, valor);
+		if (janela.size() <= capacidadeJanela)
+			return;
+
+		/// A chave mais antiga da janela é removida. Na política LRU ela é descartada;
+		/// na W-TinyLFU ela disputa uma vaga na região principal, se houver uma (com
+		/// capacidade 1, todo o cache é a janela e não há o que disputar).
+		Map.Entry<K, Object> candidata = removerMaisAntiga(janela);
+		if (politica == Politica.LRU || capacidadePrincipal == 0)
+			return;
+
+		if (principal.size() < capacidadePrincipal) {
+			principal.put(candidata.getKey(), candidata.getValue());
+		} else {
+			K vitima = principal.keySet().iterator().next();
+			if (sketch.frequencia(candidata.getKey()) > sketch.frequencia(vitima)) {
+				principal.remove(vitima);
+				principal.put(candidata.getKey(), candidata.getValue());
+			}
+		}
+	}
+
+	private Map.Entry<K, Object> removerMaisAntiga(LinkedHashMap<K, Object> regiao) {
+		Map.Entry<K, Object> maisAntiga = regiao.entrySet().iterator().next();
+		K chave = maisAntiga.getKey();
+		Object valor = maisAntiga.getValue();
+		regiao.remove(chave);
+		return Map.entry(chave, valor);
+	}
+
+	private void invalidar(K chave) {
+		janela.remove(chave);
+		principal.remove(chave);
+	}
+
+	@Override
+	public int inserir(K chave, V item) {
+		int tamanho = mapeamento.inserir(chave, item);
+		invalidar(chave);
+		return tamanho;
+	}
+
+	@Override
+	public V remover(K chave) {
+		invalidar(chave);
+		return mapeamento.remover(chave);
+	}
+
+	@Override
+	/**
+	 * Repassa o lote à estrutura decorada e invalida todas as suas chaves no cache.
+	 */
+	public int inserirTodos(Collection<? extends Map.Entry<K, V>> itens) {
+		inicio = System.nanoTime();
+		int tamanho = mapeamento.inserirTodos(itens);
+		for (Map.Entry<K, V> item : itens) {
+			invalidar(item.getKey());
+		}
+		comparacoes = mapeamento.getComparacoes();
+		termino = System.nanoTime();
+		return tamanho;
+	}
+
+	@Override
+	/**
+	 * Pesquisa cada chave do lote no cache e, em caso de falha no cache, na
+	 * estrutura decorada. As medições se referem ao lote inteiro.
+	 */
+	public List<V> pesquisarTodos(List<K> chaves) {
+
+		List<V> resultados = new ArrayList<>(chaves.size());
+		long inicioLote = System.nanoTime();
+		long total = 0;
+
+		for (K chave : chaves) {
+			Object valor = buscar(chave);
+			resultados.add((valor == AUSENTE) ? null : converter(valor));
+			total += comparacoes;
+		}
+		comparacoes = total;
+		inicio = inicioLote;
+		termino = System.nanoTime();
+		return resultados;
+	}
+
+	@Override
+	public int tamanho() {
+		return mapeamento.tamanho();
+	}
+
+	@Override
+	public String percorrer() {
+		return mapeamento.percorrer();
+	}
+
+	@Override
+	public String toString() {
+		return percorrer();
+	}
+
+	/**
+	 * Quantidade de chaves atualmente armazenadas no cache, incluindo as
+	 * armazenadas como ausentes.
+	 *
+	 * @return o tamanho atual do cache.
+	 */
+	public int tamanhoCache() {
+		return janela.size() + principal.size();
+	}
+
+	@Override
+	public long getComparacoes() {
+		return comparacoes;
+	}
+
+	@Override
+	public double getTempo() {
+		return (termino - inicio) / 1_000_000.0;
+	}
+
+	@Override
+	public long getAcertos() {
+		return acertos;
+	}
+
+	@Override
+	public long getFalhas() {
+		return falhas;
+	}
+
+	@Override
+	public double getTaxaDeAcerto() {
+		long total = acertos + falhas;
+		return (total == 0) ? 0.0 : (double) acertos / total;
+	}
+
+	/**
+	 * Estimador de frequência de acesso (count-min sketch) usado pela política
+	 * W-TinyLFU. Os contadores são divididos pela metade periodicamente, para que
+	 * chaves que deixaram de ser acessadas percam prioridade.
+	 */
+	private static class SketchFrequencia {
+
+		private static final int LINHAS = 4;
+		private static final int[] SEMENTES = { 0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F };
+
+		private final int[][] contadores;
+		private final int mascara;
+		private final int limiteAmostras;
+		private int amostras;
+
+		SketchFrequencia(int capacidade) {
+			int largura = Integer.highestOneBit(Math.max(16, capacidade) * 2 - 1);
+			contadores = new int[LINHAS][largura];
+			mascara = largura - 1;
+			limiteAmostras = 10 * capacidade;
+			amostras = 0;
+		}
+
+		void registrar(Object chave) {
+			int hash = chave.hashCode();
+			for (int i = 0; i < LINHAS; i++)
+				contadores[i][indice(hash, i)]++;
+			if (++amostras >= limiteAmostras)
+				envelhecer();
+		}
+
+		int frequencia(Object chave) {
+			int hash = chave.hashCode();
+			int minimo = Integer.MAX_VALUE;
+			for (int i = 0; i < LINHAS; i++)
+				minimo = Math.min(minimo, contadores[i][indice(hash, i)]);
+			return minimo;
+		}
+
+		private int indice(int hash, int linha) {
+			int h = hash * SEMENTES[linha];
+			return (h ^ (h >>> 16)) & mascara;
+		}
+
+		private void envelhecer() {
+			for (int[] linha : contadores)
+				for (int j = 0; j < linha.length; j++)
+					linha[j] >>>= 1;
+			amostras /= 2;
+		}
+	}
+}
@@ -0,0 +1,247 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+
+/**
+ * Mantém as árvores de produtos sincronizadas com o arquivo de dados.
+ *
+ * Após a carga inicial, uma thread acompanha o arquivo por meio de um
+ * {@link WatchService}. A cada alteração, o novo conteúdo é comparado, linha a
+ * linha, com o catálogo carregado, usando a forma canônica de
+ * {@link Produto#gerarDadosTexto()}: apenas os produtos que deixaram de existir
+ * são removidos e apenas os novos são inseridos, em vez de recarregar o
+ * catálogo inteiro. Alterar uma linha equivale a remover o produto antigo e
+ * inserir um novo.
+ *
+ * A leitura do arquivo e a comparação são feitas sem bloquear as pesquisas;
+ * somente a aplicação das alterações às árvores ocorre sob a trava de escrita.
+ * Quem pesquisa nas árvores deve usar a trava de leitura.
+ */
+public class MonitorArquivoProdutos {
+
+	private final Path arquivo;
+	private final IMapeamento<String, Produto> produtosPorNome;
+	private final IMapeamento<Integer, Produto> produtosPorId;
+	private final ReadWriteLock trava;
+
+	/** Produtos carregados, agrupados pela forma canônica de seus dados. */
+	private final Map<String, Deque<Produto>> catalogo;
+
+	/** Produtos carregados, agrupados pela descrição, para manter o índice por nome com descrições repetidas. */
+	private final Map<String, Deque<Produto>> homonimos;
+
+	private WatchService servico;
+	private Thread monitor;
+
+	/**
+	 * Construtor da classe.
+	 *
+	 * @param nomeArquivoDados Nome do arquivo de dados acompanhado.
+	 * @param produtosPorNome  Árvore de produtos organizados por descrição.
+	 * @param produtosPorId    Árvore de produtos organizados por identificador.
+	 * @param trava            Trava que protege as duas árvores.
+	 */
+	public MonitorArquivoProdutos(String nomeArquivoDados, IMapeamento<String, Produto> produtosPorNome,
+			IMapeamento<Integer, Produto> produtosPorId, ReadWriteLock trava) {
+		this.arquivo = Path.of(nomeArquivoDados).toAbsolutePath();
+		this.produtosPorNome = produtosPorNome;
+		this.produtosPorId = produtosPorId;
+		this.trava = trava;
+		this.catalogo = new HashMap<>();
+		this.homonimos = new HashMap<>();
+	}
+
+	/**
+	 * Lê as linhas de produtos do arquivo, no formato de {@code App.lerProdutos}.
+	 *
+	 * @return Lista com as linhas de produtos.
+	 * @throws IOException se o arquivo não puder ser lido ou estiver incompleto
+	 *                     (por exemplo, durante a gravação por outro programa).
+	 */
+	private List<String> lerLinhas() throws IOException {
+
+		List<String> linhas = Files.readAllLines(arquivo, StandardCharsets.UTF_8);
+		int numProdutos;
+
+		if (linhas.isEmpty()) {
+			throw new IOException("Arquivo de dados vazio.");
+		}
+		numProdutos = Integer.parseInt(linhas.get(0).trim());
+		if (linhas.size() <= numProdutos) {
+			throw new IOException("Arquivo de dados incompleto: esperados " + numProdutos + " produtos.");
+		}
+		return linhas.subList(1, numProdutos + 1);
+	}
+
+	/**
+	 * Compara o conteúdo atual do arquivo com o catálogo carregado e aplica às
+	 * árvores somente as inserções e remoções necessárias. Na primeira chamada,
+	 * carrega o catálogo inteiro.
+	 *
+	 * @return Quantidade de produtos inseridos e removidos.
+	 * @throws IOException se o arquivo não puder ser lido ou estiver incompleto.
+	 */
+	public synchronized int sincronizar() throws IOException {
+
+		Map<String, Integer> ocorrencias = new HashMap<>();
+		List<Produto> removidos = new ArrayList<>();
+		List<Produto> inseridos = new ArrayList<>();
+
+		/// Linhas novas (ou repetidas mais vezes do que antes), na ordem do arquivo: os
+		/// identificadores seguem essa ordem e, entre produtos com a mesma descrição, o
+		/// último do arquivo ocupa o índice por nome, como em App.lerProdutos.
+		for (String linha : lerLinhas()) {
+			String canonica = Produto.normalizarTexto(linha);
+			int ocorrencia = ocorrencias.merge(canonica, 1, Integer::sum);
+			Deque<Produto> existentes = catalogo.get(canonica);
+			if (existentes == null || ocorrencia > existentes.size())
+				inseridos.add(Produto.criarDoTexto(linha));
+		}
+
+		/// Produtos cujas linhas deixaram de existir (ou existem em menor quantidade).
+		for (Map.Entry<String, Deque<Produto>> grupo : catalogo.entrySet()) {
+			int excedentes = grupo.getValue().size() - ocorrencias.getOrDefault(grupo.getKey(), 0);
+			Iterator<Produto> produtos = grupo.getValue().descendingIterator();
+			for (int i = 0; i < excedentes; i++) {
+				removidos.add(produtos.next());
+			}
+		}
+
+		if (!removidos.isEmpty() || !inseridos.isEmpty()) {
+			trava.writeLock().lock();
+			try {
+				aplicar(removidos, inseridos);
+			} finally {
+				trava.writeLock().unlock();
+			}
+		}
+		return removidos.size() + inseridos.size();
+	}
+
+	private void aplicar(List<Produto> removidos, List<Produto> inseridos) {
+
+		List<Map.Entry<String, Produto>> porNome = new ArrayList<>(inseridos.size());
+		List<Map.Entry<Integer, Produto>> porId = new ArrayList<>(inseridos.size());
+
+		for (Produto produto : removidos) {
+			retirar(catalogo, produto.gerarDadosTexto(), produto);
+			retirar(homonimos, produto.descricao, produto);
+			produtosPorId.remover(produto.idProduto);
+			if (produtosPorNome.pesquisar(produto.descricao, null) == produto) {
+				/// Se houver outro produto com a mesma descrição, ele passa a ocupar a
+				/// posição no índice por nome.
+				Deque<Produto> mesmoNome = homonimos.get(produto.descricao);
+				if (mesmoNome == null)
+					produtosPorNome.remover(produto.descricao);
+				else
+					produtosPorNome.inserir(produto.descricao, mesmoNome.peekLast());
+			}
+		}
+
+		for (Produto produto : inseridos) {
+			catalogo.computeIfAbsent(produto.gerarDadosTexto(), k -> new ArrayDeque<>()).addLast(produto);
+			homonimos.computeIfAbsent(produto.descricao, k -> new ArrayDeque<>()).addLast(produto);
+			porNome.add(Map.entry(produto.descricao, produto));
+			porId.add(Map.entry(produto.idProduto, produto));
+		}
+		produtosPorNome.inserirTodos(porNome);
+		produtosPorId.inserirTodos(porId);
+	}
+
+	private static void retirar(Map<String, Deque<Produto>> grupos, String chave, Produto produto) {
+		Deque<Produto> grupo = grupos.get(chave);
+		grupo.remove(produto);
+		if (grupo.isEmpty())
+			grupos.remove(chave);
+	}
+
+	/**
+	 * Quantidade de produtos atualmente carregados.
+	 *
+	 * @return a quantidade de produtos do catálogo.
+	 */
+	public synchronized int quantidade() {
+		int quantidade = 0;
+		for (Deque<Produto> grupo : catalogo.values()) {
+			quantidade += grupo.size();
+		}
+		return quantidade;
+	}
+
+	/**
+	 * Inicia a thread que acompanha as alterações no arquivo de dados.
+	 *
+	 * @throws IOException se não for possível registrar o diretório do arquivo.
+	 */
+	public synchronized void iniciar() throws IOException {
+
+		if (monitor != null)
+			return;
+
+		servico = FileSystems.getDefault().newWatchService();
+		arquivo.getParent().register(servico, StandardWatchEventKinds.ENTRY_CREATE,
+				StandardWatchEventKinds.ENTRY_MODIFY);
+
+		monitor = new Thread(this::acompanhar, "monitor-" + arquivo.getFileName());
+		monitor.setDaemon(true);
+		monitor.start();
+	}
+
+	/**
+	 * Encerra o acompanhamento do arquivo. As árvores permanecem com o último
+	 * conteúdo sincronizado.
+	 */
+	public synchronized void parar() {
+
+		if (monitor == null)
+			return;
+
+		try {
+			servico.close();
+		} catch (IOException excecao) {
+			/// O serviço já está sendo encerrado; não há o que fazer.
+		}
+		monitor.interrupt();
+		monitor = null;
+	}
+
+	private void acompanhar() {
+		try {
+			while (true) {
+				WatchKey chave = servico.take();
+				boolean alterado = false;
+				for (WatchEvent<?> evento : chave.pollEvents()) {
+					if (arquivo.getFileName().equals(evento.context()))
+						alterado = true;
+				}
+				chave.reset();
+				if (alterado) {
+					try {
+						sincronizar();
+					} catch (IOException | RuntimeException excecao) {
+						/// Arquivo em gravação ou com dados inválidos: o catálogo atual é mantido
+						/// até a próxima alteração.
+						System.err.println("Não foi possível sincronizar " + arquivo + ": " + excecao.getMessage());
+					}
+				}
+			}
+		} catch (InterruptedException | ClosedWatchServiceException excecao) {
+			/// Acompanhamento encerrado por parar().
+		}
+	}
+}
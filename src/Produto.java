@@ -1,17 +1,27 @@
 import java.text.NumberFormat;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Locale;
 
 public abstract class Produto implements Comparable<Produto>{
 	
 	private static final double MARGEM_PADRAO = 0.2;
 	private static int ultimoID = 10_000;
 	
+	/** Formato de datas compartilhado. DateTimeFormatter é imutável e seguro para uso concorrente. */
+	static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+	
+	/** Formato monetário, um por thread, pois NumberFormat não é seguro para uso concorrente. */
+	private static final ThreadLocal<NumberFormat> MOEDA = ThreadLocal.withInitial(NumberFormat::getCurrencyInstance);
+	
 	protected int idProduto;
 	protected String descricao;
 	protected double precoCusto;
 	protected double margemLucro;
 	
+	/** Dia de referência usado por produtos cujo valor de venda não depende da data */
+	static final long DIA_INDIFERENTE = 0L;
+	
 	/**
      * Inicializador privado. Os valores default, em caso de erro, são:
      * "Produto sem descrição", R$ 0.00, 0.0  
@@ -54,11 +64,69 @@ public abstract class Produto implements Comparable<Produto>{
 		init(desc, precoCusto, MARGEM_PADRAO);
 	}
 	
+	/**
+     * Construtor sem inicialização dos dados, para subclasses que os obtêm de outra fonte
+     * (como as visões de {@link ArmazemProdutos}) por meio dos métodos de acesso. Não consome
+     * um identificador.
+     */
+	protected Produto() {
+	}
+	
+	/**
+     * Retorna o código identificador do produto.
+     * @return Inteiro positivo com o identificador do produto.
+     */
+	public int getIdProduto() {
+		return idProduto;
+	}
+	
+	/**
+     * Retorna a descrição do produto.
+     * @return Descrição do produto.
+     */
+	public String getDescricao() {
+		return descricao;
+	}
+	
+	/**
+     * Retorna o preço de custo do produto.
+     * @return Preço de custo do produto.
+     */
+	public double getPrecoCusto() {
+		return precoCusto;
+	}
+	
+	/**
+     * Retorna a margem de lucro do produto.
+     * @return Margem de lucro do produto.
+     */
+	public double getMargemLucro() {
+		return margemLucro;
+	}
+	
 	 /**
      * Retorna o valor de venda do produto, considerando seu preço de custo e margem de lucro.
      * @return Valor de venda do produto (double, positivo)
      */
-	public abstract double valorDeVenda();
+	public double valorDeVenda() {
+		return calcularValorDeVenda(diaDeReferencia());
+	}
+	
+	/**
+     * Dia de referência para o cálculo do valor de venda. Produtos cujo valor não depende da data
+     * retornam sempre {@link #DIA_INDIFERENTE}, sem consultar o relógio.
+     * @return Dia epoch de referência.
+     */
+	protected long diaDeReferencia() {
+		return DIA_INDIFERENTE;
+	}
+	
+	/**
+     * Calcula o valor de venda do produto, considerando seu preço de custo e margem de lucro.
+     * @param diaReferencia Dia epoch de referência para o cálculo.
+     * @return Valor de venda do produto (double, positivo)
+     */
+	protected abstract double calcularValorDeVenda(long diaReferencia);
 	
 	/**
      * Descrição, em string, do produto, contendo sua descrição e o valor de venda.
@@ -67,19 +135,26 @@ public abstract class Produto implements Comparable<Produto>{
      */
     @Override
 	public String toString() {
-    	
-    	NumberFormat moeda = NumberFormat.getCurrencyInstance();
-    	
-		return String.format("IDENTIFICADOR: " + idProduto + " NOME: " + descricao + ": " + moeda.format(valorDeVenda()));
+		return formatarTexto(valorDeVenda());
 	}
     
+    /**
+     * Gera a descrição, em string, do produto. 
+     * @param valorDeVenda Valor de venda exibido.
+     * @return String com o formato:
+     * [NOME]: R$ [VALOR DE VENDA]
+     */
+    protected String formatarTexto(double valorDeVenda) {
+    	return "IDENTIFICADOR: " + getIdProduto() + " NOME: " + getDescricao() + ": " + MOEDA.get().format(valorDeVenda);
+    }
+    
     @Override
     /**
      * Retorna o código identificador do produto. É um valor único para cada produto (== chave).
      * @return Inteiro positivo com o identificador do produto.
      */
     public int hashCode(){
-        return idProduto;
+        return getIdProduto();
     }
 
     /**
@@ -98,7 +173,7 @@ public abstract class Produto implements Comparable<Produto>{
     }
     
     public int compareTo(Produto outro){
-    	return this.descricao.compareTo(outro.descricao);
+    	return this.getDescricao().compareTo(outro.getDescricao());
     }
     
     /**
@@ -123,8 +198,7 @@ public abstract class Produto implements Comparable<Produto>{
     	precoCusto = Double.parseDouble(dadosLinha[2].replace(",", "."));
         margemLucro = Double.parseDouble(dadosLinha[3].replace(",", "."));
         if (tipo == 2) {
-    		DateTimeFormatter formatoData = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-    		dataDeValidade = LocalDate.parse(dadosLinha[4], formatoData);
+    		dataDeValidade = LocalDate.parse(dadosLinha[4], FORMATO_DATA);
     		produto = new ProdutoPerecivel(descricao, precoCusto, margemLucro, dataDeValidade);
     	} else {
     		produto = new ProdutoNaoPerecivel(descricao, precoCusto, margemLucro);
@@ -137,5 +211,61 @@ public abstract class Produto implements Comparable<Produto>{
      * Gera uma linha de texto a partir dos dados do produto.
      * @return Uma string no formato "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]"
      */
-    public abstract String gerarDadosTexto();
+    public String gerarDadosTexto() {
+    	return formatarDadosTexto();
+    }
+    
+    /**
+     * Formata uma linha de texto a partir dos dados do produto.
+     * @return Uma string no formato "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]"
+     */
+    protected abstract String formatarDadosTexto();
+    
+    /**
+     * Monta a linha de texto de um produto a partir de seus dados. Preço e margem de lucro são formatados
+     * com 2 casas decimais; a data de validade, quando houver, no formato dd/mm/aaaa.
+     * @param tipo 1, para produto não perecível; 2, para perecível.
+     * @param descricao Descrição do produto.
+     * @param precoCusto Preço de compra do produto.
+     * @param margemLucro Margem de lucro para a venda.
+     * @param dataDeValidade Data de validade do produto perecível (null para não perecíveis).
+     * @return Uma string no formato "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]"
+     */
+    static String montarDadosTexto(int tipo, String descricao, double precoCusto, double margemLucro,
+    		LocalDate dataDeValidade) {
+    	
+    	String dados = tipo + ";" + descricao + ";" + formatarDecimal(precoCusto) + ";" + formatarDecimal(margemLucro);
+    	
+    	if (dataDeValidade != null) {
+    		dados += ";" + FORMATO_DATA.format(dataDeValidade);
+    	}
+    	return dados;
+    }
+    
+    /**
+     * Converte uma linha de dados para a forma canônica gerada por {@link #gerarDadosTexto()}, sem criar
+     * o produto (e, portanto, sem consumir um identificador). Duas linhas com a mesma forma canônica
+     * descrevem produtos iguais.
+     * @param linha Linha no formato "tipo;descrição;preçoDeCusto;margemDeLucro;[dataDeValidade]"
+     * @return A linha na forma canônica.
+     */
+    static String normalizarTexto(String linha) {
+    	
+    	String[] dadosLinha = linha.split(";");
+    	boolean perecivel = (Integer.parseInt(dadosLinha[0]) == 2);
+    	
+    	return montarDadosTexto(perecivel ? 2 : 1, dadosLinha[1],
+    			Double.parseDouble(dadosLinha[2].replace(",", ".")),
+    			Double.parseDouble(dadosLinha[3].replace(",", ".")),
+    			perecivel ? LocalDate.parse(dadosLinha[4], FORMATO_DATA) : null);
+    }
+    
+    /**
+     * Formata um valor com 2 casas decimais, usando ponto como separador decimal.
+     * @param valor Valor a ser formatado.
+     * @return String com o valor formatado.
+     */
+    protected static String formatarDecimal(double valor) {
+    	return String.format(Locale.ROOT, "%.2f", valor);
+    }
 }
\ No newline at end of file
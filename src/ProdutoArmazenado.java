@@ -0,0 +1,115 @@
+import java.time.LocalDate;
+
+/**
+ * Visão de um produto gravado em um {@link ArmazemProdutos}.
+ *
+ * A mesma visão pode ser reposicionada em diferentes registros (ver
+ * {@link ArmazemProdutos#ler(long, ProdutoArmazenado)}), de modo que percorrer
+ * o catálogo não exige um objeto por produto. Reposicionar a visão apenas
+ * registra a posição: cada campo é lido do armazenamento quando solicitado, e a
+ * descrição só é decodificada (e alocada como {@link String}) quando usada.
+ * Por esse motivo, os atributos herdados de {@link Produto} não são preenchidos
+ * e os dados devem ser obtidos pelos métodos de acesso ({@link #getDescricao()}
+ * etc.). A visão não guarda valores em cache (o valor de venda e as
+ * representações em texto são calculados a cada chamada, com os formatos
+ * compartilhados de {@link Produto}) e não permite alterar os dados, que
+ * pertencem ao armazenamento.
+ */
+public class ProdutoArmazenado extends Produto {
+
+	private final ArmazemProdutos armazem;
+	private long posicao;
+	private String descricaoDecodificada; // descrição do registro atual, decodificada sob demanda.
+
+	ProdutoArmazenado(ArmazemProdutos armazem) {
+		super();
+		this.armazem = armazem;
+		this.posicao = -1;
+	}
+
+	/**
+	 * Passa a representar o registro na posição indicada. Nenhum campo é lido.
+	 *
+	 * @param posicao posição de um registro válido do armazenamento.
+	 */
+	void posicionar(long posicao) {
+		this.posicao = posicao;
+		descricaoDecodificada = null;
+	}
+
+	/**
+	 * Retorna a posição do registro atualmente representado pela visão.
+	 * @return Posição do registro no armazenamento.
+	 */
+	public long getPosicao() {
+		return posicao;
+	}
+
+	@Override
+	public int getIdProduto() {
+		return armazem.idProduto(posicao);
+	}
+
+	@Override
+	public String getDescricao() {
+		if (descricaoDecodificada == null) {
+			descricaoDecodificada = armazem.descricao(posicao);
+		}
+		return descricaoDecodificada;
+	}
+
+	@Override
+	public double getPrecoCusto() {
+		return armazem.precoCusto(posicao);
+	}
+
+	@Override
+	public double getMargemLucro() {
+		return armazem.margemLucro(posicao);
+	}
+
+	/**
+	 * Indica se o produto representado é perecível.
+	 * @return true se o produto tiver data de validade.
+	 */
+	public boolean perecivel() {
+		return (armazem.tipo(posicao) == ArmazemProdutos.PERECIVEL);
+	}
+
+	/**
+	 * Retorna a data de validade do produto.
+	 * @return Data de validade do produto, ou null se o produto não for perecível.
+	 */
+	public LocalDate getDataDeValidade() {
+		return perecivel() ? LocalDate.ofEpochDay(armazem.diaValidade(posicao)) : null;
+	}
+
+	@Override
+	protected long diaDeReferencia() {
+		return perecivel() ? LocalDate.now().toEpochDay() : DIA_INDIFERENTE;
+	}
+
+	@Override
+	protected double calcularValorDeVenda(long diaReferencia) {
+		if (perecivel()) {
+			return ProdutoPerecivel.calcularValorDeVenda(getPrecoCusto(), getMargemLucro(),
+					armazem.diaValidade(posicao), diaReferencia);
+		}
+		return (getPrecoCusto() * (1.0 + getMargemLucro()));
+	}
+
+	@Override
+	protected String formatarTexto(double valorDeVenda) {
+		String texto = super.formatarTexto(valorDeVenda);
+		if (perecivel()) {
+			texto += "\nVálido até " + FORMATO_DATA.format(getDataDeValidade());
+		}
+		return texto;
+	}
+
+	@Override
+	protected String formatarDadosTexto() {
+		return montarDadosTexto(armazem.tipo(posicao), getDescricao(), getPrecoCusto(), getMargemLucro(),
+				getDataDeValidade());
+	}
+}
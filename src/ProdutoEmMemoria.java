@@ -0,0 +1,144 @@
+/**
+ * Produto mantido como objeto do heap, com preço de custo e margem de lucro
+ * alteráveis.
+ *
+ * O valor de venda e as representações em texto são calculados uma única vez e
+ * reaproveitados enquanto os dados do produto e o dia de referência não mudarem.
+ * Cada valor em cache é um objeto imutável com a versão dos dados e o dia usados
+ * no cálculo, publicado em uma única escrita; as alterações incrementam a
+ * versão, de modo que valores calculados com dados antigos nunca são
+ * reaproveitados, mesmo com várias threads lendo e alterando o produto.
+ */
+public abstract class ProdutoEmMemoria extends Produto {
+
+	/** Versão dos dados do produto: incrementada a cada alteração, invalida os valores em cache */
+	private volatile long versao;
+
+	/** Valor de venda e representações em texto já calculados (null enquanto não calculados) */
+	private volatile Calculado<Double> valorDeVendaCache;
+	private volatile Calculado<String> textoCache;
+	private volatile Calculado<String> dadosTextoCache;
+
+	/**
+	 * Valor calculado a partir dos dados do produto, junto com a versão dos dados e
+	 * o dia de referência usados no cálculo.
+	 */
+	private static final class Calculado<T> {
+
+		final long versao;
+		final long dia;
+		final T valor;
+
+		Calculado(long versao, long dia, T valor) {
+			this.versao = versao;
+			this.dia = dia;
+			this.valor = valor;
+		}
+
+		boolean valido(long versaoAtual, long diaAtual) {
+			return (versao == versaoAtual) && (dia == diaAtual);
+		}
+	}
+
+	/**
+	 * Construtor completo.
+	 * @param desc Descrição do produto (mínimo de 3 caracteres)
+	 * @param precoCusto Preço do produto (mínimo 0.01)
+	 * @param margemLucro Margem de lucro (mínimo 0.01)
+	 * @throws IllegalArgumentException em caso dos limites acima serem desrespeitados.
+	 */
+	protected ProdutoEmMemoria(String desc, double precoCusto, double margemLucro) {
+		super(desc, precoCusto, margemLucro);
+	}
+
+	/**
+	 * Construtor sem margem de lucro - fica considerado o valor padrão de margem de lucro.
+	 * @param desc Descrição do produto (mínimo de 3 caracteres)
+	 * @param precoCusto Preço do produto (mínimo 0.01)
+	 * @throws IllegalArgumentException em caso dos limites acima serem desrespeitados.
+	 */
+	protected ProdutoEmMemoria(String desc, double precoCusto) {
+		super(desc, precoCusto);
+	}
+
+	@Override
+	public double valorDeVenda() {
+		return valorDeVenda(diaDeReferencia());
+	}
+
+	/**
+	 * Retorna o valor de venda do produto no dia de referência informado, usando o cache quando ele foi
+	 * calculado com a versão atual dos dados e com o mesmo dia.
+	 * @param dia Dia epoch de referência (ver {@link #diaDeReferencia()}).
+	 * @return Valor de venda do produto (double, positivo)
+	 */
+	protected final double valorDeVenda(long dia) {
+
+		/// A versão é lida antes dos dados: se eles forem alterados durante o cálculo, a versão
+		/// gravada junto com o valor já estará desatualizada e o valor não será reaproveitado.
+		long versaoAtual = versao;
+		Calculado<Double> calculado = valorDeVendaCache;
+
+		if (calculado != null && calculado.valido(versaoAtual, dia)) {
+			return calculado.valor;
+		}
+		double valor = calcularValorDeVenda(dia);
+		valorDeVendaCache = new Calculado<>(versaoAtual, dia, valor);
+		return valor;
+	}
+
+	/**
+	 * Altera o preço de custo do produto, invalidando o valor de venda e as representações em texto.
+	 * @param precoCusto Novo preço de custo (mínimo 0.01)
+	 * @throws IllegalArgumentException em caso de preço inválido.
+	 */
+	public synchronized void setPrecoCusto(double precoCusto) {
+		if (precoCusto <= 0.0) {
+			throw new IllegalArgumentException("Valores inválidos para os dados do produto.");
+		}
+		this.precoCusto = precoCusto;
+		versao++;
+	}
+
+	/**
+	 * Altera a margem de lucro do produto, invalidando o valor de venda e as representações em texto.
+	 * @param margemLucro Nova margem de lucro (mínimo 0.01)
+	 * @throws IllegalArgumentException em caso de margem inválida.
+	 */
+	public synchronized void setMargemLucro(double margemLucro) {
+		if (margemLucro <= 0.0) {
+			throw new IllegalArgumentException("Valores inválidos para os dados do produto.");
+		}
+		this.margemLucro = margemLucro;
+		versao++;
+	}
+
+	@Override
+	public String toString() {
+
+		long versaoAtual = versao;
+		long dia = diaDeReferencia();
+		Calculado<String> calculado = textoCache;
+
+		if (calculado != null && calculado.valido(versaoAtual, dia)) {
+			return calculado.valor;
+		}
+		String texto = formatarTexto(valorDeVenda(dia));
+		textoCache = new Calculado<>(versaoAtual, dia, texto);
+		return texto;
+	}
+
+	@Override
+	public String gerarDadosTexto() {
+
+		long versaoAtual = versao;
+		Calculado<String> calculado = dadosTextoCache;
+
+		if (calculado != null && calculado.valido(versaoAtual, DIA_INDIFERENTE)) {
+			return calculado.valor;
+		}
+		String dados = formatarDadosTexto();
+		dadosTextoCache = new Calculado<>(versaoAtual, DIA_INDIFERENTE, dados);
+		return dados;
+	}
+}
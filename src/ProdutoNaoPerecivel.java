@@ -1,4 +1,4 @@
-public class ProdutoNaoPerecivel extends Produto{
+public class ProdutoNaoPerecivel extends ProdutoEmMemoria{
 
 	/**
      * Construtor completo. Causa exceção em caso de valores inválidos para os dados do produto.
@@ -23,10 +23,11 @@ public class ProdutoNaoPerecivel extends Produto{
 
 	/**
      * Retorna o valor de venda do produto, considerando seu preço de custo e margem de lucro
+     * @param diaReferencia Ignorado: o valor não depende da data.
      * @return Valor de venda do produto (double, positivo)
      */
 	@Override
-	public double valorDeVenda() {
+	protected double calcularValorDeVenda(long diaReferencia) {
 		return (precoCusto * (1.0 + margemLucro));
 	}
 
@@ -35,11 +36,7 @@ public class ProdutoNaoPerecivel extends Produto{
      * @return Uma string no formato "1;descrição;preçoDeCusto;margemDeLucro"
      */
 	@Override
-    public String gerarDadosTexto() {
-    	
-		String precoCustoFormatado = String.format("%.2f", precoCusto).replaceAll(",", ".");
-		String margemLucroFormatada = String.format("%.2f", margemLucro).replaceAll(",", ".");
-		
-		return String.format("1;%s;%s;%s", descricao, precoCustoFormatado, margemLucroFormatada);
+    protected String formatarDadosTexto() {
+		return montarDadosTexto(1, descricao, precoCusto, margemLucro, null);
     }
 }
\ No newline at end of file
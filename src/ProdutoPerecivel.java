@@ -1,13 +1,12 @@
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 
-public class ProdutoPerecivel extends Produto{
+public class ProdutoPerecivel extends ProdutoEmMemoria{
 
 	/** Desconto para proximidade de validade: 25% */
 	private static final double DESCONTO = 0.25;
 	
 	/** Prazo, em dias, para conceder o desconto por proximidade da validade */
-	private static final int PRAZO_DESCONTO = 7;
+	static final int PRAZO_DESCONTO = 7;
 	
 	/** Data de validade do produto. Não pode ser anterior à data da criação ou venda do produto. */
 	private LocalDate dataDeValidade;
@@ -49,43 +48,84 @@ public class ProdutoPerecivel extends Produto{
 	}
 
 	/**
-     * Retorna o valor de venda do produto, considerando seu preço de custo, margem de lucro e
+     * Retorna o valor de venda do produto na data informada. Permite que rotinas em lote leiam o relógio
+     * uma única vez e calculem o preço de vários produtos com a mesma data de referência.
+     * O valor fica armazenado em cache enquanto a data de referência e os dados do produto não mudarem.
+     * @param hoje Data de referência para o cálculo do desconto por proximidade da validade.
+     * @return Valor de venda do produto (double, positivo)
+     * @throws IllegalArgumentException se a data de validade for anterior à data de referência.
+     */
+	public double valorDeVenda(LocalDate hoje) {
+		return valorDeVenda(hoje.toEpochDay());
+	}
+	
+	/**
+     * O desconto depende da data: o valor de venda e a descrição são calculados para o dia atual.
+     * @return Dia epoch de hoje.
+     */
+	@Override
+	protected long diaDeReferencia() {
+		return LocalDate.now().toEpochDay();
+	}
+	
+	/**
+     * Calcula o valor de venda do produto, considerando seu preço de custo, margem de lucro e
      * dias de validade. Se o prazo de validade estiver a menos de 7 dias, será concedido desconto de 25%.
+     * @param diaReferencia Dia epoch de referência para o cálculo do desconto.
      * @return Valor de venda do produto (double, positivo)
      */
 	@Override
-	public double valorDeVenda() {
+	protected double calcularValorDeVenda(long diaReferencia) {
+		return calcularValorDeVenda(precoCusto, margemLucro, dataDeValidade.toEpochDay(), diaReferencia);
+	}
+	
+	/**
+     * Calcula o valor de venda de um produto perecível a partir de seus dados, concedendo o desconto
+     * por proximidade da validade quando for o caso.
+     * @param precoCusto Preço de compra do produto.
+     * @param margemLucro Margem de lucro para a venda.
+     * @param diaValidade Dia epoch da data de validade.
+     * @param diaReferencia Dia epoch da data de referência.
+     * @return Valor de venda do produto (double, positivo)
+     * @throws IllegalArgumentException se a data de validade for anterior à data de referência.
+     */
+	static double calcularValorDeVenda(double precoCusto, double margemLucro, long diaValidade, long diaReferencia) {
 		
 		double precoVenda;
+		long diasRestantes;
 		
-		if (dataDeValidade.isBefore(LocalDate.now())) {
+		diasRestantes = diaValidade - diaReferencia;
+		if (diasRestantes < 0) {
 			throw new IllegalArgumentException("Data de validade do produto é anterior ao dia de hoje!");
 		}
 		
 		precoVenda = (precoCusto * (1.0 + margemLucro));
 				
-		if (LocalDate.now().until(dataDeValidade).getDays() <= PRAZO_DESCONTO) {
+		if (diasRestantes <= PRAZO_DESCONTO) {
 			precoVenda = precoVenda * (1.0 - DESCONTO);
 		}
 		
 		return precoVenda;
 	}
 	
+	/**
+     * Retorna a data de validade do produto.
+     * @return Data de validade do produto.
+     */
+	public LocalDate getDataDeValidade() {
+		return dataDeValidade;
+	}
+	
 	/**
      * Descrição, em string, do produto, contendo sua descrição, o valor de venda e sua data de validade.
-     *  @return String com o formato:
+     * @param valorDeVenda Valor de venda exibido.
+     * @return String com o formato:
      * [NOME]: R$ [VALOR DE VENDA]
      * Válido até [DD/MM/YYYY]
      */
     @Override
-    public String toString(){
-    	
-        DateTimeFormatter formato = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        
-        String dados = super.toString();
-        dados += "\nVálido até " + formato.format(dataDeValidade);
-        
-        return dados;
+    protected String formatarTexto(double valorDeVenda) {
+    	return super.formatarTexto(valorDeVenda) + "\nVálido até " + FORMATO_DATA.format(dataDeValidade);
     }
     
     /**
@@ -94,14 +134,7 @@ public class ProdutoPerecivel extends Produto{
      * @return Uma string no formato "2;descrição;preçoDeCusto;margemDeLucro;dataDeValidade"
      */
 	@Override
-    public String gerarDadosTexto() {
-    
-		String precoCustoFormatado = String.format("%.2f", precoCusto).replaceAll(",", ".");
-		String margemLucroFormatada = String.format("%.2f", margemLucro).replaceAll(",", ".");
-		DateTimeFormatter formatoData = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-		String dataFormatada = formatoData.format(dataDeValidade);
-		
-		return String.format("2;%s;%s;%s;%s", descricao, precoCustoFormatado, margemLucroFormatada, dataFormatada);
-		
+    protected String formatarDadosTexto() {
+		return montarDadosTexto(2, descricao, precoCusto, margemLucro, dataDeValidade);
 	}
 }
\ No newline at end of file